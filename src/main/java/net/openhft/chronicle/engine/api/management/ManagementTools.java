@@ -21,6 +21,7 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.engine.api.management.mbean.AssetTreeDynamicMBean;
 import net.openhft.chronicle.engine.api.map.MapEvent;
 import net.openhft.chronicle.engine.api.map.SubscriptionKeyValueStore;
+import net.openhft.chronicle.engine.api.pubsub.InvalidSubscriberException;
 import net.openhft.chronicle.engine.api.tree.Asset;
 import net.openhft.chronicle.engine.api.tree.AssetTree;
 import net.openhft.chronicle.engine.map.ObjectKeyValueStore;
@@ -50,6 +51,7 @@ import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /*
  * Created by peter.lawrey on 16/06/2015.
@@ -58,6 +60,11 @@ public enum ManagementTools {
     ;
 
     private static final Logger LOG = LoggerFactory.getLogger(ManagementTools.class);
+    // the most often the attributes of an asset are refreshed after it changes
+    private static final long REFRESH_INTERVAL_MS = Long.getLong("jmx.refreshIntervalMs", 1000);
+    // the most entries of a map shown as attributes
+    private static final int MAX_ENTRIES = Integer.getInteger("jmx.maxEntries", 100);
+    private static final int MAX_VALUE_LENGTH = 128;
 
     //JMXConnectorServer for create jmx service
     private static JMXConnectorServer jmxServer;
@@ -66,8 +73,6 @@ public enum ManagementTools {
     @Nullable
     private static MBeanServer mbs = null;
 
-    private static AssetTreeDynamicMBean dynamicMBean;
-
     //number of AssetTree enabled for management.
     private static int count = 0;
 
@@ -198,32 +203,22 @@ public enum ManagementTools {
                 //ObjectName atName = new ObjectName(createObjectNameUri(e.assetName(),e.name(),treeName));
 
                 //start Dynamic MBeans Code
-                @NotNull Map<String, String> m = new HashMap<>();
-                m.put("size", "" + view.longSize());
-                m.put("keyType", view.keyType().getName());
-                m.put("valueType", view.valueType().getName());
-                m.put("topicSubscriberCount", "" + objectSubscription.topicSubscriberCount());
-                m.put("keySubscriberCount", "" + objectSubscription.keySubscriberCount());
-                m.put("entrySubscriberCount", "" + objectSubscription.entrySubscriberCount());
-                m.put("keyStoreValue", objectSubscription.getClass().getName());
-                m.put("path", e.assetName() + "-" + e.name());
-
-                for (int i = 0; i < view.segments(); i++) {
-                    view.entriesFor(i, entry -> {
-                        if (entry.getValue().toString().length() > 256) {
-                            m.put("~" + entry.getKey().toString(), entry.getValue().toString().substring(0, 256) + "...");
-                        } else {
-                            m.put("~" + entry.getKey().toString(), entry.getValue().toString());
-                        }
-                    });
-                }
-                dynamicMBean = new AssetTreeDynamicMBean(m);
+                @NotNull String path = e.assetName() + "-" + e.name();
+                @NotNull AssetTreeDynamicMBean dynamicMBean = new AssetTreeDynamicMBean(
+                        attributes(view, objectSubscription, path));
                 @NotNull ObjectName atName = new ObjectName(createObjectNameUri(hostId, e.assetName(), e.name(), treeName));
                 registerTreeWithMBean(dynamicMBean, atName);
                 //end Dynamic MBeans Code
 
-                tree.registerSubscriber(e.fullName(), MapEvent.class, (MapEvent me) ->
-                        ses.schedule(() -> handleAssetUpdate(view0, atName, objectSubscription, e.assetName() + "-" + e.name()), 100, TimeUnit.MILLISECONDS));
+                // refresh at most once per interval, however many events there are in between
+                @NotNull AtomicBoolean refreshPending = new AtomicBoolean();
+                tree.registerSubscriber(e.fullName(), MapEvent.class, (MapEvent me) -> {
+                    if (refreshPending.compareAndSet(false, true))
+                        ses.schedule(() -> {
+                            refreshPending.set(false);
+                            handleAssetUpdate(view0, dynamicMBean, atName, objectSubscription, path);
+                        }, REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                });
 
                 //AssetTreeJMX atBean = new AssetTreeJMX(view,objectKVSSubscription,e.assetName() + "-" + e.name(),getMapAsString(view));
                 //registerTreeWithMBean(atBean, atName);
@@ -237,49 +232,49 @@ public enum ManagementTools {
         }
     }
 
-    private static void handleAssetUpdate(@NotNull ObjectKeyValueStore view, ObjectName atName, @NotNull ObjectSubscription objectSubscription, String path) {
+    private static void handleAssetUpdate(@NotNull ObjectKeyValueStore view, @NotNull AssetTreeDynamicMBean dynamicMBean, ObjectName atName, @NotNull ObjectSubscription objectSubscription, String path) {
         try {
-            if (mbs != null && mbs.isRegistered(atName)) {
-                /*AttributeList list = new AttributeList();
-                list.add(new Attribute("Size",view.longSize()));
-                list.add(new Attribute("Entries",getMapAsString(view)));
-                list.add(new Attribute("KeyType",view.keyType().getName()));
-                list.add(new Attribute("ValueType",view.valueType().getName()));
-                list.add(new Attribute("TopicSubscriberCount",objectKVSSubscription.topicSubscriberCount()));
-                list.add(new Attribute("EntrySubscriberCount",objectKVSSubscription.entrySubscriberCount()));
-                list.add(new Attribute("KeySubscriberCount",objectKVSSubscription.keySubscriberCount()));
-                list.add(new Attribute("Dynamic Attribute Key","Dynamic Attribute Value"));
-                mbs.setAttributes(atName,list);*/
-                //start Dynamic MBeans Code
-                @NotNull Map m = new HashMap();
-                m.put("size", "" + view.longSize());
-                m.put("keyType", view.keyType().getName());
-                m.put("valueType", view.valueType().getName());
-                m.put("topicSubscriberCount", "" + objectSubscription.topicSubscriberCount());
-                m.put("keySubscriberCount", "" + objectSubscription.keySubscriberCount());
-                m.put("entrySubscriberCount", "" + objectSubscription.entrySubscriberCount());
-                m.put("keyStoreValue", objectSubscription.getClass().getName());
-                m.put("path", path);
-
-                Iterator<Map.Entry> iterator = view.entrySetIterator();
-                while (iterator.hasNext()) {
-                    Map.Entry entry = iterator.next();
-                    if (entry.getValue().toString().length() > 128) {
-                        m.put("~" + entry.getKey().toString(), entry.getValue().toString().substring(0, 128) + "...");
-                    } else {
-                        m.put("~" + entry.getKey().toString(), entry.getValue().toString());
-                    }
-                }
-                dynamicMBean = new AssetTreeDynamicMBean(m);
-                unregisterTreeWithMBean(atName);
-                registerTreeWithMBean(dynamicMBean, atName);
-                //end Dynamic MBeans Code
-            }
+            if (mbs != null && mbs.isRegistered(atName))
+                dynamicMBean.update(attributes(view, objectSubscription, path));
         } catch (Throwable t) {
             Jvm.warn().on(ManagementTools.class, "Error while handle Asset update", t);
         }
     }
 
+    /**
+     * the attributes of an asset, with up to {@code jmx.maxEntries} entries of the map, so the cost
+     * does not grow with the size of the map.
+     */
+    @NotNull
+    private static Map<String, String> attributes(@NotNull ObjectKeyValueStore<Object, Object> view, @NotNull ObjectSubscription objectSubscription, String path) {
+        @NotNull Map<String, String> m = new HashMap<>();
+        m.put("size", "" + view.longSize());
+        m.put("keyType", view.keyType().getName());
+        m.put("valueType", view.valueType().getName());
+        m.put("topicSubscriberCount", "" + objectSubscription.topicSubscriberCount());
+        m.put("keySubscriberCount", "" + objectSubscription.keySubscriberCount());
+        m.put("entrySubscriberCount", "" + objectSubscription.entrySubscriberCount());
+        m.put("keyStoreValue", objectSubscription.getClass().getName());
+        m.put("path", path);
+
+        @NotNull int[] count = {0};
+        try {
+            for (int i = 0; i < view.segments(); i++) {
+                view.entriesFor(i, entry -> {
+                    if (count[0]++ >= MAX_ENTRIES)
+                        throw new InvalidSubscriberException();
+                    String value = String.valueOf(entry.getValue());
+                    if (value.length() > MAX_VALUE_LENGTH)
+                        value = value.substring(0, MAX_VALUE_LENGTH) + "...";
+                    m.put("~" + entry.getKey(), value);
+                });
+            }
+        } catch (InvalidSubscriberException enough) {
+            // the sample is full
+        }
+        return m;
+    }
+
     private static String createObjectNameUri(int hostId, @NotNull String assetName, String eventName, @NotNull String treeName) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("treeName=" + treeName);
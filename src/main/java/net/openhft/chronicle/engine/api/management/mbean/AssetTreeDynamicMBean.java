@@ -31,7 +31,7 @@ public class AssetTreeDynamicMBean implements DynamicMBean {
 
     @NotNull
     private final Properties properties;
-    private final Map attributeList;
+    private Map attributeList;
 
     public AssetTreeDynamicMBean(Map attributeList) {
         this.properties = new Properties();
@@ -123,7 +123,19 @@ public class AssetTreeDynamicMBean implements DynamicMBean {
         return new MBeanInfo(getClass().getName(), "Property Manager MBean", attrs, null, opers, null);
     }
 
-    private void load() {
+    /**
+     * Replace the attributes in place, so the MBean does not need to be registered again. A
+     * reload restores these attributes, rather than the ones this MBean was created with.
+     *
+     * @param attributeList the new attributes
+     */
+    public synchronized void update(@NotNull Map attributeList) {
+        this.attributeList = attributeList;
+        this.properties.clear();
+        load();
+    }
+
+    private synchronized void load() {
         this.properties.putAll(attributeList);
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.map;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Striped locks for the stores which cannot update a key atomically themselves. Keys of
+ * different stores can share a lock, which only costs contention.
+ */
+final class KeyLocks {
+
+    private static final int STRIPES = Integer.highestOneBit(
+            Math.max(1, Integer.getInteger("keyValueStore.lockStripes", 256)));
+    private static final Object[] LOCKS = new Object[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++)
+            LOCKS[i] = new Object();
+    }
+
+    private KeyLocks() {
+    }
+
+    @NotNull
+    static Object lockFor(@NotNull Object store, @NotNull Object key) {
+        int h = System.identityHashCode(store) * 31 + key.hashCode();
+        h ^= h >>> 16;
+        return LOCKS[h & (STRIPES - 1)];
+    }
+}
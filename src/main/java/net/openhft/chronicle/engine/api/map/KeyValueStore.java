@@ -28,9 +28,13 @@ import net.openhft.lang.model.constraints.Nullable;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 /**
@@ -126,6 +130,67 @@ public interface KeyValueStore<K, V> extends Assetted<KeyValueStore<K, V>>, Clos
 
     void clear();
 
+    /**
+     * @param keys the keys to look up
+     * @return the keys present, mapped to their values, in the order of {@code keys}
+     */
+    @NotNull
+    default Map<K, V> getAll(@NotNull Collection<? extends K> keys) {
+        @NotNull final Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            final V value = getUsing(key, null);
+            if (value != null)
+                result.put(key, value);
+        }
+        return result;
+    }
+
+    default void putAll(@NotNull Map<? extends K, ? extends V> map) {
+        for (@NotNull Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    default void removeAll(@NotNull Collection<? extends K> keys) {
+        for (K key : keys)
+            remove(key);
+    }
+
+    /**
+     * The asynchronous operations complete before returning unless the store is remote.
+     *
+     * @param key the key to look up
+     * @return a future of the value, or of null if absent
+     */
+    @NotNull
+    default CompletableFuture<V> getAsync(K key) {
+        return CompletableFuture.supplyAsync(() -> getUsing(key, null), Runnable::run);
+    }
+
+    @NotNull
+    default CompletableFuture<Boolean> containsKeyAsync(K key) {
+        return CompletableFuture.supplyAsync(() -> containsKey(key), Runnable::run);
+    }
+
+    @NotNull
+    default CompletableFuture<Void> putAsync(K key, V value) {
+        return CompletableFuture.runAsync(() -> put(key, value), Runnable::run);
+    }
+
+    @NotNull
+    default CompletableFuture<V> getAndPutAsync(K key, V value) {
+        return CompletableFuture.supplyAsync(() -> getAndPut(key, value), Runnable::run);
+    }
+
+    @NotNull
+    default CompletableFuture<Void> removeAsync(K key) {
+        return CompletableFuture.runAsync(() -> remove(key), Runnable::run);
+    }
+
+    @NotNull
+    default CompletableFuture<V> getAndRemoveAsync(K key) {
+        return CompletableFuture.supplyAsync(() -> getAndRemove(key), Runnable::run);
+    }
+
     @org.jetbrains.annotations.Nullable
     @Nullable
     default V replace(K key, V value) {
@@ -166,6 +231,28 @@ public interface KeyValueStore<K, V> extends Assetted<KeyValueStore<K, V>>, Clos
         return value2 == null ? getAndPut(key, value) : value2;
     }
 
+    /**
+     * Atomically replace the value for a key with the result of a function of the old value, or
+     * remove the key if the result is null. Stores which cannot do this themselves hold a striped
+     * lock, so it is atomic with respect to other calls of compute on this store.
+     *
+     * @param key               to update
+     * @param remappingFunction of the key and old value, or null if absent, to the new value
+     * @return the new value, or null if absent.
+     */
+    @org.jetbrains.annotations.Nullable
+    default V compute(K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        synchronized (KeyLocks.lockFor(this, key)) {
+            @org.jetbrains.annotations.Nullable V oldValue = get(key);
+            @org.jetbrains.annotations.Nullable V newValue = remappingFunction.apply(key, oldValue);
+            if (newValue != null)
+                put(key, newValue);
+            else if (oldValue != null)
+                remove(key);
+            return newValue;
+        }
+    }
+
     @NotNull
     default Iterator<V> valuesIterator() {
         // todo optimise
@@ -31,7 +31,11 @@ import net.openhft.chronicle.engine.query.Filter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
@@ -137,6 +141,35 @@ public interface MapView<K, V> extends ConcurrentMap<K, V>,
      */
     long longSize();
 
+    /**
+     * Obtain the values of many keys in one call, a remote map reads them in one request for each
+     * batch of keys, rather than one request for each key.
+     *
+     * @param keys to lookup.
+     * @return the keys present, mapped to their values, in the order of {@code keys}
+     */
+    @NotNull
+    default Map<K, V> getAll(@NotNull Collection<? extends K> keys) {
+        @NotNull final Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            final V value = get(key);
+            if (value != null)
+                result.put(key, value);
+        }
+        return result;
+    }
+
+    /**
+     * Remove many keys in one call, a remote map removes them in one request for each batch of
+     * keys.
+     *
+     * @param keys to remove.
+     */
+    default void removeAll(@NotNull Collection<? extends K> keys) {
+        for (K key : keys)
+            remove(key);
+    }
+
     /**
      * Explicitly get the old value before putting a new one.
      *
@@ -155,4 +188,77 @@ public interface MapView<K, V> extends ConcurrentMap<K, V>,
      */
     @Nullable
     V getAndRemove(K key);
+
+    /**
+     * Obtain a value without waiting for it. A remote map sends the request and returns, the
+     * future completing when the reply with the same tid arrives, so many requests can be in flight
+     * on one connection. Other maps complete the future before returning.
+     * <p>
+     * A remote request is not resent on reconnecting, its future fails with an
+     * IORuntimeException if the connection is lost, or the map closed, before the reply. Remote
+     * futures are completed on one shared thread, so dependent actions should not block.
+     *
+     * @param key to lookup.
+     * @return a future of the value, or of null if absent.
+     */
+    @NotNull
+    default CompletableFuture<V> getAsync(@NotNull K key) {
+        return CompletableFuture.supplyAsync(() -> get(key), Runnable::run);
+    }
+
+    /**
+     * @param key to lookup.
+     * @return a future of whether the key is present.
+     * @see #getAsync(Object)
+     */
+    @NotNull
+    default CompletableFuture<Boolean> containsKeyAsync(@NotNull K key) {
+        return CompletableFuture.supplyAsync(() -> containsKey(key), Runnable::run);
+    }
+
+    /**
+     * Put a value, the future completing once the put has been applied.
+     *
+     * @param key   to set
+     * @param value to set
+     * @return a future completed when the put has been applied.
+     * @see #getAsync(Object)
+     */
+    @NotNull
+    default CompletableFuture<Void> putAsync(@NotNull K key, @NotNull V value) {
+        return CompletableFuture.runAsync(() -> put(key, value), Runnable::run);
+    }
+
+    /**
+     * @param key   to lookup
+     * @param value to set
+     * @return a future of the old value, or of null if absent
+     * @see #getAsync(Object)
+     */
+    @NotNull
+    default CompletableFuture<V> getAndPutAsync(@NotNull K key, @NotNull V value) {
+        return CompletableFuture.supplyAsync(() -> getAndPut(key, value), Runnable::run);
+    }
+
+    /**
+     * Remove a key, the future completing once the remove has been applied.
+     *
+     * @param key to remove
+     * @return a future completed when the remove has been applied.
+     * @see #getAsync(Object)
+     */
+    @NotNull
+    default CompletableFuture<Void> removeAsync(@NotNull K key) {
+        return CompletableFuture.runAsync(() -> remove(key), Runnable::run);
+    }
+
+    /**
+     * @param key to remove
+     * @return a future of the old value, or of null if absent.
+     * @see #getAsync(Object)
+     */
+    @NotNull
+    default CompletableFuture<V> getAndRemoveAsync(@NotNull K key) {
+        return CompletableFuture.supplyAsync(() -> getAndRemove(key), Runnable::run);
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.pubsub;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.wire.ValueOut;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireKey;
+import net.openhft.chronicle.wire.WireOut;
+import net.openhft.chronicle.wire.WireType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A message published to many remote subscribers, which is marshalled once for each wire type
+ * rather than once for each subscriber. The subscription notifying the subscribers of an event
+ * creates one when the event has more than one {@link SharingSubscriber} or {@link
+ * SharingTopicSubscriber}, and passes it to each, each of which then only writes its own header and copies the marshalled
+ * message. Once the subscribers have been notified it is only held by the events queued to be
+ * published.
+ */
+public final class SharedMessage {
+
+    @Nullable
+    private final Object topic;
+    @Nullable
+    private final Object message;
+    private final boolean hasTopic;
+    // the message marshalled, by WireType ordinal
+    private final Bytes[] encoded = new Bytes[WireType.values().length];
+
+    private SharedMessage(@Nullable Object topic, @Nullable Object message, boolean hasTopic) {
+        this.topic = topic;
+        this.message = message;
+        this.hasTopic = hasTopic;
+    }
+
+    /**
+     * @return the message, to share between the subscribers of one event
+     */
+    @NotNull
+    public static SharedMessage of(@Nullable Object message) {
+        return new SharedMessage(null, message, false);
+    }
+
+    /**
+     * @return the message and its topic, as a marshallable, to share between the subscribers of one
+     * event
+     */
+    @NotNull
+    public static SharedMessage of(@Nullable Object topic, @Nullable Object message) {
+        return new SharedMessage(topic, message, true);
+    }
+
+    /**
+     * writes the message as the value of the field {@code key}
+     */
+    public void write(@NotNull WireOut wire, @NotNull WireKey key) {
+        @Nullable final WireType wireType = wire instanceof Wire ? WireType.valueOf((Wire) wire) : null;
+
+        // the text wires indent the value by its nesting, so it can only be copied for binary
+        if (wireType != WireType.BINARY && wireType != WireType.FIELDLESS_BINARY) {
+            writeValue(wire.write(key));
+            return;
+        }
+
+        wire.write(key);
+        wire.bytes().write(encoded(wireType));
+    }
+
+    @NotNull
+    private synchronized Bytes encoded(@NotNull WireType wireType) {
+        Bytes bytes = encoded[wireType.ordinal()];
+        if (bytes == null) {
+            // on heap, as a publisher may drop a queued event, so no one subscriber owns the buffer
+            bytes = Bytes.elasticHeapByteBuffer(128);
+            writeValue(wireType.apply(bytes).getValueOut());
+            encoded[wireType.ordinal()] = bytes;
+        }
+        return bytes;
+    }
+
+    private void writeValue(@NotNull ValueOut valueOut) {
+        if (hasTopic) {
+            valueOut.marshallable(m -> {
+                m.write(() -> "topic").object(topic);
+                m.write(() -> "message").object(message);
+            });
+        } else {
+            valueOut.object(message);
+        }
+    }
+
+    /**
+     * A subscriber which can write the message shared by all the subscribers of an event.
+     */
+    public interface SharingSubscriber<E> extends Subscriber<E> {
+        /**
+         * @param message       published
+         * @param sharedMessage the message, shared with the other subscribers of the event
+         * @throws InvalidSubscriberException to throw when this subscriber is no longer valid.
+         */
+        void onMessage(E message, @NotNull SharedMessage sharedMessage) throws InvalidSubscriberException;
+    }
+
+    /**
+     * A topic subscriber which can write the message shared by all the subscribers of an event.
+     */
+    public interface SharingTopicSubscriber<T, M> extends TopicSubscriber<T, M> {
+        /**
+         * @param topic         the message was associated with
+         * @param message       published
+         * @param sharedMessage the topic and message, shared with the other subscribers of the event
+         * @throws InvalidSubscriberException to throw when this subscriber is no longer valid.
+         */
+        void onMessage(T topic, M message, @NotNull SharedMessage sharedMessage) throws InvalidSubscriberException;
+    }
+}
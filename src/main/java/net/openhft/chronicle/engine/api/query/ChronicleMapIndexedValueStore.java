@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.util.ObjectUtils;
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.ChronicleMapBuilder;
+import net.openhft.chronicle.wire.Marshallable;
+import net.openhft.chronicle.wire.WireType;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * an off heap store, persisted to memory mapped files in {@code path}, one chronicle map is
+ * created per event name, each entry holds the index of the message followed by the value in
+ * binary wire. The last index applied is stored alongside, so on restart the {@link
+ * VanillaIndexQueueView} can continue to read the queue from this checkpoint rather than
+ * replaying the whole roll cycle.
+ * <p>
+ * Unlike {@link VanillaIndexedValueStore}, a put is not free of allocation, as Chronicle Map 2
+ * takes the key and value as {@code byte[]}, so both are copied out of the reused buffers for each
+ * message.
+ *
+ * @author Rob Austin.
+ */
+class ChronicleMapIndexedValueStore<V extends Marshallable> implements IndexedValueStore<V> {
+
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String LAST_INDEX_READ = "lastIndexRead";
+
+    private final Map<String, ChronicleMap<byte[], byte[]>> maps = new ConcurrentHashMap<>();
+    @NotNull
+    private final EventNameInterner eventNames;
+    @NotNull
+    private final File path;
+    private final long entries;
+    private final double averageValueSize;
+    @NotNull
+    private final ChronicleMap<String, Long> checkpointMap;
+
+    ChronicleMapIndexedValueStore(@NotNull EventNameInterner eventNames,
+                                  @NotNull String path,
+                                  long entries,
+                                  double averageValueSize) {
+        this.eventNames = eventNames;
+        this.path = new File(path);
+        this.entries = entries;
+        this.averageValueSize = averageValueSize;
+
+        //noinspection ResultOfMethodCallIgnored
+        this.path.mkdirs();
+
+        @NotNull final File file = new File(this.path, CHECKPOINT + ".cm");
+        try {
+            checkpointMap = ChronicleMapBuilder.of(String.class, Long.class)
+                    .entries(1)
+                    .createPersistedTo(file);
+        } catch (IOException e) {
+            throw new IORuntimeException("Could not access " + file, e);
+        }
+    }
+
+    @NotNull
+    private ChronicleMap<byte[], byte[]> acquireMap(@NotNull String eventName) {
+        return maps.computeIfAbsent(eventName, this::newMap);
+    }
+
+    @NotNull
+    private ChronicleMap<byte[], byte[]> newMap(@NotNull String eventName) {
+        @NotNull final File file = new File(path, eventName + ".cm");
+        try {
+            return ChronicleMapBuilder.of(byte[].class, byte[].class)
+                    .entries(entries)
+                    .averageValueSize(averageValueSize)
+                    .putReturnsNull(true)
+                    .createPersistedTo(file);
+        } catch (IOException e) {
+            throw new IORuntimeException("Could not access " + file, e);
+        }
+    }
+
+    @Override
+    public void put(int eventId, @NotNull Bytes key, @NotNull V v, long index) {
+        final ValueBuffer buffer = ValueBuffer.get();
+        buffer.bytes.writeLong(index);
+        v.writeMarshallable(buffer.wire);
+        acquireMap(eventNames.name(eventId)).put(key.toByteArray(), buffer.bytes.toByteArray());
+    }
+
+    @NotNull
+    @Override
+    public Stream<IndexedValue<V>> values(int eventId, @NotNull Class<? extends Marshallable> type) {
+        return acquireMap(eventNames.name(eventId)).values().stream().map(b -> toIndexedValue(b, type));
+    }
+
+    @NotNull
+    private IndexedValue<V> toIndexedValue(@NotNull byte[] bytes,
+                                           @NotNull Class<? extends Marshallable> type) {
+        @NotNull final Bytes b = Bytes.wrapForRead(bytes);
+        final long index = b.readLong();
+        @NotNull final V v = (V) ObjectUtils.newInstance(type);
+        v.readMarshallable(WireType.BINARY.apply(b));
+        return new IndexedValue<>(v, index);
+    }
+
+    @Override
+    public long checkpoint() {
+        final Long index = checkpointMap.get(LAST_INDEX_READ);
+        return index == null ? 0 : index;
+    }
+
+    @Override
+    public void checkpoint(long index) {
+        checkpointMap.put(LAST_INDEX_READ, index);
+    }
+
+    @Override
+    public void close() {
+        maps.values().forEach(Closeable::closeQuietly);
+        maps.clear();
+        Closeable.closeQuietly(checkpointMap);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * maps each event name to a small int id, the ids are allocated from zero in the order the names
+ * are first seen. Looking up a name that has already been interned does not create any garbage,
+ * as the {@code CharSequence} is compared in place rather than being converted to a {@code
+ * String}.
+ *
+ * @author Rob Austin.
+ */
+final class EventNameInterner {
+
+    @NotNull
+    private volatile String[] names = {};
+
+    private static int find(@NotNull String[] names, @NotNull CharSequence eventName) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].contentEquals(eventName))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param eventName the name of the event
+     * @return the id of the event name
+     */
+    int intern(@NotNull CharSequence eventName) {
+        final int id = find(names, eventName);
+        return id >= 0 ? id : add(eventName);
+    }
+
+    private synchronized int add(@NotNull CharSequence eventName) {
+        final String[] names = this.names;
+        final int id = find(names, eventName);
+        if (id >= 0)
+            return id;
+
+        final String[] names2 = Arrays.copyOf(names, names.length + 1);
+        names2[names.length] = eventName.toString();
+        this.names = names2;
+        return names.length;
+    }
+
+    /**
+     * @param id an id returned by {@link #intern(CharSequence)}
+     * @return the name of the event
+     */
+    @NotNull
+    String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return the number of event names interned
+     */
+    int size() {
+        return names.length;
+    }
+}
@@ -19,6 +19,7 @@ package net.openhft.chronicle.engine.api.query;
 
 import net.openhft.chronicle.wire.KeyedMarshallable;
 import net.openhft.chronicle.wire.Marshallable;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.function.Predicate;
 
@@ -50,4 +51,41 @@ public interface IndexQuery<V> extends Marshallable {
     Predicate<V> filter();
 
     String eventName();
+
+    /**
+     * @return the name of a field of the value, that has to be between {@link #indexFrom()} and
+     * {@link #indexTo()}, or {@code null} if no range is selected. If the field has a secondary index
+     * only the matching values are read when the subscription is bootstrapped
+     */
+    @Nullable
+    default String indexField() {
+        return null;
+    }
+
+    /**
+     * @return the lowest value of the {@link #indexField()}, inclusive, or {@code null} if
+     * unbounded
+     */
+    @Nullable
+    default String indexFrom() {
+        return null;
+    }
+
+    /**
+     * @return the highest value of the {@link #indexField()}, inclusive, or {@code null} if
+     * unbounded
+     */
+    @Nullable
+    default String indexTo() {
+        return null;
+    }
+
+    /**
+     * @return the maximum number of values that are sent to the subscriber in a single document,
+     * batching the values reduces the number of documents that are written when a large snapshot
+     * is bootstrapped, {@code 1} sends each value in its own document
+     */
+    default int batchSize() {
+        return 1;
+    }
 }
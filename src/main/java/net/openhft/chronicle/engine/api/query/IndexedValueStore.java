@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.wire.Marshallable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.stream.Stream;
+
+/**
+ * holds the latest value for each key and event name, as read by the {@link VanillaIndexQueueView}
+ * along with the index of the last message that has been applied to it.
+ *
+ * @author Rob Austin.
+ */
+interface IndexedValueStore<V extends Marshallable> extends Closeable {
+
+    /**
+     * records {@code v} as the latest value of {@code key}, implementations must take a copy of
+     * both the key and the value as they are reused by the caller
+     *
+     * @param eventId   the id of the name of the event the value was read from, as returned by
+     *                  the {@link EventNameInterner}
+     * @param key       the bytes of the key, as written by the {@link
+     *                  net.openhft.chronicle.wire.KeyedMarshallable}
+     * @param v         the value
+     * @param index     the index in the queue of the message that held the value
+     */
+    void put(int eventId, @NotNull Bytes key, @NotNull V v, long index);
+
+    /**
+     * @param eventId the id of the name of the event
+     * @param type    the type of the value, used when the values have to be deserialized
+     * @return the latest values held for the event, this stream is weakly consistent
+     */
+    @NotNull
+    Stream<IndexedValue<V>> values(int eventId, @NotNull Class<? extends Marshallable> type);
+
+    /**
+     * @param eventId the id of the name of the event
+     * @param type    the type of the value, used when the values have to be deserialized
+     * @param field   the name of the field of the value
+     * @param from    the lowest value of the field, inclusive, or {@code null} if unbounded
+     * @param to      the highest value of the field, inclusive, or {@code null} if unbounded
+     * @return the latest values held for the event, with a field in the range, or {@code null} if
+     * the field is not indexed by this store. This stream is weakly consistent, so may hold values
+     * that are no longer in the range.
+     */
+    @Nullable
+    default Stream<IndexedValue<V>> values(int eventId,
+                                           @NotNull Class<? extends Marshallable> type,
+                                           @NotNull String field,
+                                           @Nullable Comparable from,
+                                           @Nullable Comparable to) {
+        return null;
+    }
+
+    /**
+     * @return the index of the last message that has been applied to this store, or {@code 0} if
+     * no checkpoint is held
+     */
+    long checkpoint();
+
+    /**
+     * @param index the index of the last message that has been applied to this store
+     */
+    void checkpoint(long index);
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.core.io.Closeable;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * maps the bytes of a key to a slot, the slots are allocated from zero in the order the keys are
+ * first seen.
+ * <p>
+ * The keys are copied into an off heap arena, and are looked up using an off heap open
+ * addressing table, each entry in the table holds the hash of the key, the slot + 1 ( so an
+ * empty entry is zero ) and the offset of the key in the arena. Looking up a key that has
+ * already been interned does not create any garbage.
+ * <p>
+ * This class is not thread safe, an instance must only be used by one thread at a time.
+ *
+ * @author Rob Austin.
+ */
+final class KeyInterner implements Closeable {
+
+    private static final int HASH = 0;
+    private static final int SLOT = 4;
+    private static final int OFFSET = 8;
+    private static final int ENTRY_SIZE = 16;
+    private static final long K = 0x9E3779B97F4A7C15L;
+
+    @NotNull
+    private final Bytes arena = Bytes.allocateElasticDirect();
+    @NotNull
+    private Bytes table;
+    private int capacity;
+    private int size;
+
+    /**
+     * @param initialCapacity the initial number of entries in the table, rounded up to a power
+     *                        of two
+     */
+    KeyInterner(int initialCapacity) {
+        capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1;
+        table = newTable(capacity);
+    }
+
+    @NotNull
+    private static Bytes newTable(int capacity) {
+        final long length = (long) capacity * ENTRY_SIZE;
+        @NotNull final Bytes table = Bytes.allocateDirect(length);
+        for (long i = 0; i < length; i += 8)
+            table.writeLong(i, 0L);
+        return table;
+    }
+
+    static int hash(@NotNull BytesStore key, long offset, long length) {
+        long h = length;
+        long i = 0;
+        for (; i + 8 <= length; i += 8)
+            h = (h ^ key.readLong(offset + i)) * K;
+        for (; i < length; i++)
+            h = (h ^ key.readByte(offset + i)) * K;
+        h ^= h >>> 29;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * @param key the bytes of the key, from its {@code readPosition} to its {@code readLimit}
+     * @return the slot of the key, if the key has not been seen before it is allocated the next
+     * slot, which is equal to {@link #size()} before this call
+     */
+    int intern(@NotNull Bytes key) {
+        final long offset = key.readPosition();
+        final long length = key.readRemaining();
+        final int hash = hash(key, offset, length);
+        final int mask = capacity - 1;
+
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            final long entry = (long) i * ENTRY_SIZE;
+            final int slot = table.readInt(entry + SLOT) - 1;
+
+            if (slot < 0)
+                return add(entry, hash, key, offset, length);
+
+            if (table.readInt(entry + HASH) == hash &&
+                    keyEquals(table.readLong(entry + OFFSET), key, offset, length))
+                return slot;
+        }
+    }
+
+    private int add(long entry, int hash, @NotNull Bytes key, long offset, long length) {
+        final long keyOffset = arena.writePosition();
+        arena.writeInt((int) length);
+        arena.write(key, offset, length);
+
+        final int slot = size++;
+        table.writeInt(entry + HASH, hash);
+        table.writeInt(entry + SLOT, slot + 1);
+        table.writeLong(entry + OFFSET, keyOffset);
+
+        if (size * 2 > capacity)
+            resize();
+        return slot;
+    }
+
+    private boolean keyEquals(long keyOffset, @NotNull Bytes key, long offset, long length) {
+        if (arena.readInt(keyOffset) != length)
+            return false;
+
+        final long start = keyOffset + 4;
+        long i = 0;
+        for (; i + 8 <= length; i += 8) {
+            if (arena.readLong(start + i) != key.readLong(offset + i))
+                return false;
+        }
+        for (; i < length; i++) {
+            if (arena.readByte(start + i) != key.readByte(offset + i))
+                return false;
+        }
+        return true;
+    }
+
+    private void resize() {
+        final int capacity2 = capacity << 1;
+        final int mask = capacity2 - 1;
+        @NotNull final Bytes table2 = newTable(capacity2);
+
+        for (int i = 0; i < capacity; i++) {
+            final long entry = (long) i * ENTRY_SIZE;
+            final int slot = table.readInt(entry + SLOT);
+            if (slot == 0)
+                continue;
+
+            final int hash = table.readInt(entry + HASH);
+            int j = hash & mask;
+            while (table2.readInt((long) j * ENTRY_SIZE + SLOT) != 0)
+                j = (j + 1) & mask;
+
+            final long entry2 = (long) j * ENTRY_SIZE;
+            table2.writeInt(entry2 + HASH, hash);
+            table2.writeInt(entry2 + SLOT, slot);
+            table2.writeLong(entry2 + OFFSET, table.readLong(entry + OFFSET));
+        }
+
+        table.release();
+        table = table2;
+        capacity = capacity2;
+    }
+
+    /**
+     * @return the number of keys interned
+     */
+    int size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        table.release();
+        arena.release();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.wire.Marshallable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * a sorted index of the latest values of an event, by the value of one of its fields, used to
+ * bootstrap a subscription with only the values that have a field equal to, or within a range
+ * of, the values in the {@link IndexQuery}.
+ * <p>
+ * The index is only updated by the one thread that updates the values of the event, but can be
+ * read concurrently.
+ *
+ * @author Rob Austin.
+ */
+final class SecondaryIndex<V extends Marshallable> {
+
+    @NotNull
+    private final String fieldName;
+    private final NavigableMap<Comparable, Set<IndexedValue<V>>> index = new ConcurrentSkipListMap<>();
+    @Nullable
+    private Field field;
+    /**
+     * the value of the field that each slot is currently indexed by
+     */
+    @NotNull
+    private Comparable[] indexedBy = new Comparable[16];
+
+    SecondaryIndex(@NotNull String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * @return the field called {@code fieldName} declared by {@code type} or one of its super
+     * classes
+     * @throws IllegalArgumentException if there is no such field
+     */
+    @NotNull
+    static Field field(@NotNull Class type, @NotNull String fieldName) {
+        for (Class c = type; c != null; c = c.getSuperclass()) {
+            try {
+                final Field field = c.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException ignored) {
+            }
+        }
+        throw new IllegalArgumentException("field=" + fieldName + " not found in " + type.getName());
+    }
+
+    @Nullable
+    static Comparable fieldValue(@NotNull Field field, @NotNull Object o) {
+        try {
+            return (Comparable) field.get(o);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @NotNull
+    String fieldName() {
+        return fieldName;
+    }
+
+    /**
+     * re-indexes the value held in {@code slot}, if the value of its field has changed
+     */
+    void update(int slot, @NotNull IndexedValue<V> indexedValue) {
+        final V v = indexedValue.v();
+        if (v == null)
+            return;
+
+        if (field == null)
+            field = field(v.getClass(), fieldName);
+
+        final Comparable value = fieldValue(field, v);
+        if (slot >= indexedBy.length)
+            indexedBy = Arrays.copyOf(indexedBy, Math.max(slot + 1, indexedBy.length << 1));
+
+        final Comparable last = indexedBy[slot];
+        if (Objects.equals(last, value))
+            return;
+
+        if (last != null) {
+            final Set<IndexedValue<V>> values = index.get(last);
+            if (values != null) {
+                values.remove(indexedValue);
+                if (values.isEmpty())
+                    index.remove(last, values);
+            }
+        }
+
+        if (value != null)
+            index.computeIfAbsent(value, k -> ConcurrentHashMap.newKeySet()).add(indexedValue);
+        indexedBy[slot] = value;
+    }
+
+    /**
+     * @param from the lowest value of the field, inclusive, or {@code null} if unbounded
+     * @param to   the highest value of the field, inclusive, or {@code null} if unbounded
+     * @return the values with a field in the range, this stream is weakly consistent so the
+     * values should be checked again by the caller
+     */
+    @NotNull
+    Stream<IndexedValue<V>> values(@Nullable Comparable from, @Nullable Comparable to) {
+        final NavigableMap<Comparable, Set<IndexedValue<V>>> range;
+        if (from == null)
+            range = to == null ? index : index.headMap(to, true);
+        else
+            range = to == null ? index.tailMap(from, true) : index.subMap(from, true, to, true);
+        return range.values().stream().flatMap(Set::stream);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.wire.Marshallable;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireType;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * a reusable, per thread, buffer used to serialize values in binary wire without creating
+ * garbage.
+ *
+ * @author Rob Austin.
+ */
+final class ValueBuffer {
+
+    private static final ThreadLocal<ValueBuffer> VALUE_BUFFER = ThreadLocal.withInitial(ValueBuffer::new);
+
+    final Bytes<ByteBuffer> bytes = Bytes.elasticHeapByteBuffer(256);
+    final Wire wire = WireType.BINARY.apply(bytes);
+
+    private ValueBuffer() {
+    }
+
+    @NotNull
+    static ValueBuffer get() {
+        final ValueBuffer buffer = VALUE_BUFFER.get();
+        buffer.bytes.clear();
+        return buffer;
+    }
+
+    /**
+     * copies the fields of {@code from} to {@code to}
+     */
+    static <T extends Marshallable> void copy(@NotNull T from, @NotNull T to) {
+        final ValueBuffer buffer = get();
+        from.writeMarshallable(buffer.wire);
+        to.readMarshallable(buffer.wire);
+    }
+}
@@ -28,6 +28,7 @@ import net.openhft.chronicle.wire.Wires;
 import net.openhft.compiler.CompilerUtils;
 import net.openhft.lang.model.DataValueGenerator;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,6 +51,10 @@ public class VanillaIndexQuery<V> extends AbstractMarshallable implements Demars
     private String eventName;
     private long from;
     private boolean bootstrap = true;
+    private String indexField;
+    private String indexFrom;
+    private String indexTo;
+    private int batchSize = 1;
 
     public VanillaIndexQuery() {
     }
@@ -136,6 +141,8 @@ public class VanillaIndexQuery<V> extends AbstractMarshallable implements Demars
                 ", select='" + select + '\'' +
                 ", eventName='" + eventName + '\'' +
                 ", from=" + Long.toHexString(from) +
+                (indexField == null ? "" : ", " + indexField + "=[" + indexFrom + ", " + indexTo + "]") +
+                (batchSize == 1 ? "" : ", batchSize=" + batchSize) +
                 '}';
     }
 
@@ -145,6 +152,70 @@ public class VanillaIndexQuery<V> extends AbstractMarshallable implements Demars
         return this;
     }
 
+    @Nullable
+    @Override
+    public String indexField() {
+        return indexField;
+    }
+
+    @Nullable
+    @Override
+    public String indexFrom() {
+        return indexFrom;
+    }
+
+    @Nullable
+    @Override
+    public String indexTo() {
+        return indexTo;
+    }
+
+    @Override
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize the maximum number of values sent in a single document, documents are
+     *                  also bounded in size, so fewer values may be sent if they are large
+     * @return this
+     */
+    @NotNull
+    public VanillaIndexQuery<V> batchSize(int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize=" + batchSize);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * selects the values with a {@code field} equal to {@code value}
+     *
+     * @param field the name of the field of the value
+     * @param value the value of the field, converted to the type of the field on the server
+     * @return this
+     */
+    @NotNull
+    public VanillaIndexQuery<V> where(@NotNull String field, @NotNull Object value) {
+        return whereBetween(field, value, value);
+    }
+
+    /**
+     * selects the values with a {@code field} between {@code from} and {@code to} inclusive
+     *
+     * @param field the name of the field of the value
+     * @param from  the lowest value of the field, or {@code null} if unbounded
+     * @param to    the highest value of the field, or {@code null} if unbounded
+     * @return this
+     */
+    @NotNull
+    public VanillaIndexQuery<V> whereBetween(@NotNull String field, @Nullable Object from, @Nullable Object to) {
+        this.indexField = field;
+        this.indexFrom = from == null ? null : from.toString();
+        this.indexTo = to == null ? null : to.toString();
+        return this;
+    }
+
     /**
      * ensures that the same select/predicate will return an existing class instance
      */
@@ -18,16 +18,19 @@
 package net.openhft.chronicle.engine.api.query;
 
 import net.openhft.chronicle.bytes.Bytes;
-import net.openhft.chronicle.bytes.BytesStore;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.pool.StringBuilderPool;
+import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.EventLoop;
+import net.openhft.chronicle.core.threads.HandlerPriority;
 import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
 import net.openhft.chronicle.core.time.SystemTimeProvider;
+import net.openhft.chronicle.core.util.ObjectUtils;
 import net.openhft.chronicle.engine.api.pubsub.ConsumingSubscriber;
 import net.openhft.chronicle.engine.api.pubsub.Subscriber;
 import net.openhft.chronicle.engine.api.tree.Asset;
 import net.openhft.chronicle.engine.api.tree.RequestContext;
+import net.openhft.chronicle.engine.query.QueueConfig;
 import net.openhft.chronicle.engine.tree.ChronicleQueueView;
 import net.openhft.chronicle.engine.tree.QueueView;
 import net.openhft.chronicle.queue.ChronicleQueue;
@@ -40,17 +43,24 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import static net.openhft.chronicle.core.util.ObjectUtils.convertTo;
 import static net.openhft.chronicle.engine.api.query.IndexQuery.FROM_START;
 import static net.openhft.chronicle.wire.Wires.*;
 
@@ -62,15 +72,30 @@ public class VanillaIndexQueueView<V extends Marshallable>
 
     private static final Logger LOG = LoggerFactory.getLogger(VanillaIndexQueueView.class);
     private static final Iterator EMPTY_ITERATOR = Collections.EMPTY_LIST.iterator();
+    /**
+     * the number of messages read between each checkpoint of the index store
+     */
+    private static final int CHECKPOINT_INTERVAL = 1 << 10;
+    private static final long IDLE_PAUSE_NS = TimeUnit.MICROSECONDS.toNanos(100);
+    /**
+     * how long close waits for a shard to finish the message it is reading, before the store it
+     * writes to is released
+     */
+    private static final long CLOSE_TIMEOUT_MS = Long.getLong("indexQueue.closeTimeoutMs", 5_000);
 
     @Nullable
     private final ChronicleQueue chronicleQueue;
-    private final Map<String, ConcurrentMap<Object, IndexedValue<V>>> multiMap = new ConcurrentHashMap<>();
+    @NotNull
+    private final EventNameInterner eventNames = new EventNameInterner();
+    @NotNull
+    private final IndexedValueStore<V> indexedValueStore;
     private final Map<Subscriber<IndexedValue<V>>, AtomicBoolean> activeSubscriptions
             = new ConcurrentHashMap<>();
     private final AtomicBoolean isClosed = new AtomicBoolean();
+    private final AtomicBoolean isReleased = new AtomicBoolean();
 
-    private final Object lastIndexLock = new Object();
+    @NotNull
+    private final IngestionShard[] shards;
     private final ThreadLocal<IndexedValue<V>> indexedValue = ThreadLocal.withInitial(IndexedValue::new);
     @Nullable
     private final TypeToString typeToString;
@@ -78,12 +103,6 @@ public class VanillaIndexQueueView<V extends Marshallable>
     private final Asset asset;
     @NotNull
     private final StringBuilderPool eventNameDeserialiserPool = new StringBuilderPool();
-    private volatile long lastIndexRead = 0;
-    private long lastSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
-    private long messagesReadPerSecond = 0;
-
-    @NotNull
-    private ConcurrentMap<Bytes, BytesStore> bytesToKey = new ConcurrentHashMap<>();
 
     public VanillaIndexQueueView(@NotNull RequestContext context,
                                  @NotNull Asset asset,
@@ -93,13 +112,37 @@ public class VanillaIndexQueueView<V extends Marshallable>
         @NotNull final ChronicleQueueView chronicleQueueView = (ChronicleQueueView) queueView;
 
         chronicleQueue = chronicleQueueView.chronicleQueue();
-        @NotNull final ExcerptTailer tailer = chronicleQueue.createTailer();
-
-        @NotNull AtomicBoolean hasMovedToStart = new AtomicBoolean();
-
         typeToString = asset.findView(TypeToString.class);
 
-        eventLoop.addHandler(() -> handleAction(tailer, hasMovedToStart));
+        @Nullable final QueueConfig queueConfig = asset.findView(QueueConfig.class);
+        final Map<String, Set<String>> secondaryIndexes = queueConfig == null
+                ? Collections.emptyMap()
+                : queueConfig.secondaryIndexes();
+        indexedValueStore = (queueConfig == null || queueConfig.indexPath() == null)
+                ? new VanillaIndexedValueStore<>(eventNames, secondaryIndexes)
+                : new ChronicleMapIndexedValueStore<>(eventNames, queueConfig.indexPath(),
+                queueConfig.indexEntries(), queueConfig.indexAverageValueSize());
+
+        final int shardCount = queueConfig == null ? 1 : Math.max(1, queueConfig.indexShards());
+        final long checkpoint = indexedValueStore.checkpoint();
+        shards = new IngestionShard[shardCount];
+        for (int i = 0; i < shardCount; i++)
+            shards[i] = new IngestionShard(i, shardCount, chronicleQueue.createTailer(), checkpoint);
+
+        for (@NotNull IngestionShard shard : shards)
+            eventLoop.addHandler(shard);
+    }
+
+    /**
+     * a hash of the event name, which is the same for any implementation of {@code CharSequence}
+     * and does not require the event name to be converted to a {@code String}
+     */
+    private static int eventNameHash(@NotNull CharSequence eventName) {
+        int h = 0;
+        for (int i = 0; i < eventName.length(); i++) {
+            h = 31 * h + eventName.charAt(i);
+        }
+        return h & Integer.MAX_VALUE;
     }
 
     private static boolean eventNamesMatch(final CharSequence serialisedEventName,
@@ -117,112 +160,42 @@ public class VanillaIndexQueueView<V extends Marshallable>
         return true;
     }
 
-    private boolean handleAction(ExcerptTailer tailer, AtomicBoolean hasMovedToStart) throws InvalidEventHandlerException {
-        // the first time this is run, we move to the start of the current cycle
-        if (!hasMovedToStart.get()) {
-            @NotNull final RollingChronicleQueue chronicleQueue = (RollingChronicleQueue) this.chronicleQueue;
-            final int cycle = chronicleQueue.cycle();
-            long startOfCurrentCycle = chronicleQueue.rollCycle().toIndex(cycle, 0);
-            final boolean success = tailer.moveToIndex(startOfCurrentCycle);
-            hasMovedToStart.set(success);
-            if (!success)
-                return false;
-        }
-
-        long currentSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
-
-        if (currentSecond >= lastSecond + 10) {
-            lastSecond = currentSecond;
-            LOG.info("messages read per second=" + messagesReadPerSecond / 10);
-            messagesReadPerSecond = 0;
-        }
-
-        if (isClosed.get())
-            throw new InvalidEventHandlerException();
+    /**
+     * moves the tailer to the message after the checkpoint held by the index store
+     *
+     * @return {@code false} if there is no checkpoint or the queue no longer holds it
+     */
+    private boolean moveToCheckpoint(@NotNull ExcerptTailer tailer) {
+        final long checkpoint = indexedValueStore.checkpoint();
+        if (checkpoint == 0 || !tailer.moveToIndex(checkpoint))
+            return false;
 
+        // the message at the checkpoint has already been applied to the index
         try (DocumentContext dc = tailer.readingDocument()) {
+            return dc.isPresent();
+        }
+    }
 
-            if (!dc.isPresent())
-                return false;
-
-            long start = dc.wire().bytes().readPosition();
-
-            try {
-                for (; ; ) {
-                    dc.wire().consumePadding();
-
-                    if (dc.wire().bytes().readRemaining() == 0)
-                        return true;
-
-                    final StringBuilder sb = acquireStringBuilder();
-                    @NotNull ValueIn read = dc.wire().read(sb);
-
-                    // skip the history if the message has one.
-                    if ("history".contentEquals(sb)) {
-                        read.marshallable(MessageHistory.get());
-                        sb.setLength(0);
-                        read = dc.wire().read(sb);
-                    }
-
-                    if (sb.length() == 0)
-                        return true;
-                    Class<? extends Marshallable> type = typeToString.toType(sb);
-                    if (type == null)
-                        return true;
-                    @NotNull final V v = (V) VanillaObjectCacheFactory.INSTANCE.get()
-                            .apply(type);
-                    long readPosition = dc.wire().bytes().readPosition();
-                    try {
-                        read.marshallable(v);
-                    } catch (Exception e) {
-
-                        @NotNull final String msg = dc.wire().bytes().toHexString(readPosition, dc.wire()
-                                .bytes()
-                                .readLimit() - readPosition);
-
-                        LOG.error("Error passing " + v.getClass().getSimpleName() + " bytes:\n"
-                                + msg, e);
-                        return false;
-                    }
-
-                    Object k;
-                    if (v instanceof KeyedMarshallable) {
-                        final Bytes bytes = Wires.acquireBytes();
-                        ((KeyedMarshallable) v).writeKey(bytes);
-
-                        k = bytesToKey.get(bytes);
-                        if (k == null) {
-                            BytesStore copy = bytes.copy();
-                            bytesToKey.put(copy.bytesForRead(), copy);
-                            k = copy;
-                        }
-                    } else
-                        return true;
-
-                    messagesReadPerSecond++;
-
-                    @NotNull final String eventName = sb.toString();
-                    synchronized (lastIndexLock) {
-                        multiMap.computeIfAbsent(eventName, e -> new ConcurrentHashMap<>())
-                                .compute(k, (k1, vOld) -> {
-                                    if (vOld == null)
-                                        return new IndexedValue<>(deepCopy(v), dc.index());
-                                    else {
-                                        copyTo(v, vOld.v());
-                                        vOld.index(dc.index());
-                                        return vOld;
-                                    }
-                                });
-                        lastIndexRead = dc.index();
-                    }
-                }
-
-            } catch (RuntimeException e) {
-                Jvm.warn().on(getClass(), fromSizePrefixedBlobs(dc.wire().bytes(), start - 4), e);
-            }
+    /**
+     * @return the index up to which every shard has applied all the messages in the queue
+     */
+    long lastIndexRead() {
+        long lastIndexRead = Long.MAX_VALUE;
+        for (@NotNull IngestionShard shard : shards) {
+            lastIndexRead = Math.min(lastIndexRead, shard.lastIndexRead.get());
         }
+        return lastIndexRead;
+    }
 
-        return true;
+    int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return the index up to which this shard has applied all the messages in the queue
+     */
+    long lastIndexRead(int shardId) {
+        return shards[shardId].lastIndexRead.get();
     }
 
     /**
@@ -249,7 +222,7 @@ public class VanillaIndexQueueView<V extends Marshallable>
             final int cycle = rollCycle.toCycle(currentIndex);
             fromIndex0 = rollCycle.toIndex(cycle, 0);
         } else if (fromIndex0 == 0) {
-            long lastIndexRead = this.lastIndexRead;
+            long lastIndexRead = lastIndexRead();
             // if data is streaming in constantly, then the lastIndexRead may not be a the last message in the queue, but in the case
             // we can use this lastIndexRead as the fromIndex0  as the indexes are almost the same.
             // In other-words its not worth blocking till the lastIndexRead == endIndex
@@ -269,7 +242,7 @@ public class VanillaIndexQueueView<V extends Marshallable>
         assert success : "fromIndex=" + Long.toHexString(fromIndex)
                 + ", start=" + Long.toHexString(start) + ",end=" + Long.toHexString(endIndex);
 
-        if (fromIndex <= lastIndexRead) {
+        if (fromIndex <= lastIndexRead()) {
             registerSubscriber(sub, vanillaIndexQuery, tailer, fromIndex);
             return;
         }
@@ -291,7 +264,7 @@ public class VanillaIndexQueueView<V extends Marshallable>
                                                        @NotNull IndexQuery<V> vanillaIndexQuery,
                                                        @NotNull ExcerptTailer tailer,
                                                        long fromIndex) throws InvalidEventHandlerException {
-        if (fromIndex > lastIndexRead)
+        if (fromIndex > lastIndexRead())
             return false;
 
         registerSubscriber(sub, vanillaIndexQuery, tailer, fromIndex);
@@ -306,23 +279,20 @@ public class VanillaIndexQueueView<V extends Marshallable>
         activeSubscriptions.put(sub, isClosed);
 
         final String eventName = vanillaIndexQuery.eventName();
-        final Predicate<V> filter = vanillaIndexQuery.filter();
-
-        // don't set iterator if the 'fromIndex' has not caught up.
-
-        @NotNull final Iterator<IndexedValue<V>> iterator;
+        @Nullable final Class<? extends Marshallable> type = typeToString.toType(eventName);
 
-        final ConcurrentMap<Object, IndexedValue<V>> map = multiMap.computeIfAbsent(eventName, k -> new ConcurrentHashMap<>());
+        try {
+            final Predicate<V> filter = filter(vanillaIndexQuery, type);
+            CheckPointPredicate checkPointPredicate = new CheckPointPredicate(fromIndex);
 
-        CheckPointPredicate checkPointPredicate = new CheckPointPredicate(fromIndex);
-        iterator = (vanillaIndexQuery.bootstrap())
-                ? map.values().stream().filter(
-                i -> filter.test(i.v()) && checkPointPredicate.test(i)).iterator()
-                : EMPTY_ITERATOR;
+            // don't set iterator if the 'fromIndex' has not caught up.
+            @NotNull final Iterator<IndexedValue<V>> iterator = (vanillaIndexQuery.bootstrap() && type != null)
+                    ? bootstrapValues(vanillaIndexQuery, type).filter(
+                    i -> filter.test(i.v()) && checkPointPredicate.test(i)).iterator()
+                    : EMPTY_ITERATOR;
 
-        try {
             @NotNull final Supplier<Marshallable> supplier = excerptConsumer(vanillaIndexQuery,
-                    tailer, iterator, fromIndex, checkPointPredicate);
+                    filter, tailer, iterator, fromIndex, checkPointPredicate);
             sub.addSupplier(supplier);
 
         } catch (RuntimeException e) {
@@ -331,17 +301,73 @@ public class VanillaIndexQueueView<V extends Marshallable>
         }
     }
 
+    /**
+     * @return the filter of the query, combined with the range of its {@code indexField} if it
+     * has one
+     */
+    @NotNull
+    private Predicate<V> filter(@NotNull IndexQuery<V> vanillaIndexQuery,
+                                @Nullable Class<? extends Marshallable> type) {
+        final Predicate<V> filter = vanillaIndexQuery.filter();
+        final String fieldName = vanillaIndexQuery.indexField();
+        if (fieldName == null || type == null)
+            return filter;
+
+        @NotNull final Field field = SecondaryIndex.field(type, fieldName);
+        @Nullable final Comparable from = bound(field, vanillaIndexQuery.indexFrom());
+        @Nullable final Comparable to = bound(field, vanillaIndexQuery.indexTo());
+
+        return v -> {
+            @Nullable final Comparable value = SecondaryIndex.fieldValue(field, v);
+            return value != null
+                    && (from == null || from.compareTo(value) <= 0)
+                    && (to == null || to.compareTo(value) >= 0)
+                    && filter.test(v);
+        };
+    }
+
+    @Nullable
+    private static Comparable bound(@NotNull Field field, @Nullable String value) {
+        return value == null
+                ? null
+                : (Comparable) convertTo(ObjectUtils.primToWrapper(field.getType()), value);
+    }
+
+    /**
+     * @return the values to bootstrap the subscription with, if the query selects a range of a
+     * field that has a secondary index, only the values in this range are returned
+     */
+    @NotNull
+    Stream<IndexedValue<V>> bootstrapValues(@NotNull IndexQuery<V> vanillaIndexQuery,
+                                            @NotNull Class<? extends Marshallable> type) {
+        final int eventId = eventNames.intern(vanillaIndexQuery.eventName());
+        final String fieldName = vanillaIndexQuery.indexField();
+
+        if (fieldName != null) {
+            @NotNull final Field field = SecondaryIndex.field(type, fieldName);
+            @Nullable final Stream<IndexedValue<V>> values = indexedValueStore.values(eventId, type,
+                    fieldName, bound(field, vanillaIndexQuery.indexFrom()),
+                    bound(field, vanillaIndexQuery.indexTo()));
+            if (values != null)
+                return values;
+        }
+
+        return indexedValueStore.values(eventId, type);
+    }
+
     @NotNull
     private Supplier<Marshallable> excerptConsumer(@NotNull IndexQuery<V> vanillaIndexQuery,
+                                                   @NotNull Predicate<V> filter,
                                                    @NotNull ExcerptTailer tailer,
                                                    @NotNull Iterator<IndexedValue<V>> iterator,
                                                    final long fromIndex,
                                                    LongSupplier lastIndexOfSnapshot) {
-        return () -> VanillaIndexQueueView.this.value(vanillaIndexQuery, tailer, iterator, fromIndex, lastIndexOfSnapshot);
+        return () -> VanillaIndexQueueView.this.value(vanillaIndexQuery, filter, tailer, iterator, fromIndex, lastIndexOfSnapshot);
     }
 
     @Nullable
     private Marshallable value(@NotNull IndexQuery<V> vanillaIndexQuery,
+                               @NotNull Predicate<V> filter,
                                @NotNull ExcerptTailer tailer,
                                @NotNull Iterator<IndexedValue<V>> iterator,
                                final long from,
@@ -350,7 +376,7 @@ public class VanillaIndexQueueView<V extends Marshallable>
         if (iterator.hasNext()) {
             IndexedValue<V> indexedValue = iterator.next();
             indexedValue.timePublished(System.currentTimeMillis());
-            indexedValue.maxIndex(lastIndexRead);
+            indexedValue.maxIndex(lastIndexRead());
             // we have to also check that we are on the last message
             // because the value returned  by lastIndexOfSnapshot may change on each call
             // as more of the maps is understood
@@ -365,7 +391,6 @@ public class VanillaIndexQueueView<V extends Marshallable>
         }
 
         final String eventName = vanillaIndexQuery.eventName();
-        final Predicate<V> filter = vanillaIndexQuery.filter();
         if (isClosed.get())
             throw Jvm.rethrow(new InvalidEventHandlerException("shutdown"));
 
@@ -408,7 +433,7 @@ public class VanillaIndexQueueView<V extends Marshallable>
                 indexedValue.v(v);
                 indexedValue.timePublished(System.currentTimeMillis());
                 indexedValue.isEndOfSnapshot(index == lastIndexOfSnapshot.getAsLong());
-                indexedValue.maxIndex(Math.max(dc.index(), lastIndexRead));
+                indexedValue.maxIndex(Math.max(dc.index(), lastIndexRead()));
                 return indexedValue;
 
             } finally {
@@ -429,11 +454,247 @@ public class VanillaIndexQueueView<V extends Marshallable>
         if (isClosed != null) isClosed.set(true);
     }
 
+    /**
+     * stops the shards and the subscriptions while the event loop is still running, the tree
+     * closes its event loop before it closes the views
+     */
     @Override
-    public void close() {
+    public void notifyClosing() {
         isClosed.set(true);
         activeSubscriptions.values().forEach(v -> v.set(true));
-        chronicleQueue.close();
+    }
+
+    @Override
+    public void close() {
+        notifyClosing();
+        if (!isReleased.compareAndSet(false, true))
+            return;
+
+        try {
+            // a shard may be part way through writing to the store, which is off heap, once its
+            // lock is held it will not read another message
+            if (lockShards()) {
+                indexedValueStore.checkpoint(lastIndexRead());
+                indexedValueStore.close();
+            } else {
+                Jvm.warn().on(getClass(), "An index shard did not stop within " + CLOSE_TIMEOUT_MS
+                        + " ms, so the index store has not been released");
+            }
+        } finally {
+            for (@NotNull IngestionShard shard : shards) {
+                if (shard.lock.isHeldByCurrentThread())
+                    shard.lock.unlock();
+            }
+            chronicleQueue.close();
+        }
+    }
+
+    /**
+     * @return {@code true} if the lock of every shard is now held
+     */
+    private boolean lockShards() {
+        try {
+            for (@NotNull IngestionShard shard : shards) {
+                if (!shard.lock.tryLock(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+                    return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * tails the queue and applies the messages whose event name hashes to this shard to the
+     * index. Each shard has its own tailer and publishes the last index it has read without
+     * locking, when there is more than one shard, each is run on its own thread.
+     */
+    private class IngestionShard implements EventHandler {
+        private final int shardId;
+        private final int shardCount;
+        @NotNull
+        private final ExcerptTailer tailer;
+        @NotNull
+        private final AtomicLong lastIndexRead;
+        /**
+         * held while a message is read, so close can wait for it without the event loop
+         */
+        @NotNull
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean hasMovedToStart;
+        private long lastSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        private long messagesReadPerSecond = 0;
+        private long messagesSinceCheckpoint = 0;
+        @NotNull
+        private Class<? extends Marshallable>[] types = new Class[0];
+
+        IngestionShard(int shardId, int shardCount, @NotNull ExcerptTailer tailer, long checkpoint) {
+            this.shardId = shardId;
+            this.shardCount = shardCount;
+            this.tailer = tailer;
+            this.lastIndexRead = new AtomicLong(checkpoint);
+        }
+
+        @NotNull
+        @Override
+        public HandlerPriority priority() {
+            return shardCount == 1 ? HandlerPriority.MEDIUM : HandlerPriority.BLOCKING;
+        }
+
+        @Override
+        public boolean action() throws InvalidEventHandlerException {
+            final boolean busy;
+            lock.lock();
+            try {
+                if (isClosed.get())
+                    throw new InvalidEventHandlerException();
+                busy = handleAction();
+            } finally {
+                lock.unlock();
+            }
+
+            // blocking handlers are called in a tight loop on their own thread
+            if (!busy && shardCount > 1)
+                LockSupport.parkNanos(IDLE_PAUSE_NS);
+            return busy;
+        }
+
+        private boolean isOwner(@NotNull CharSequence eventName) {
+            return shardCount == 1 || eventNameHash(eventName) % shardCount == shardId;
+        }
+
+        /**
+         * caches the type of each event name, so the event name does not have to be converted to
+         * a {@code String} for each message
+         */
+        @Nullable
+        private Class<? extends Marshallable> type(int eventId, @NotNull CharSequence eventName) {
+            if (eventId < types.length && types[eventId] != null)
+                return types[eventId];
+
+            final Class<? extends Marshallable> type = typeToString.toType(eventName);
+            if (type != null) {
+                if (eventId >= types.length)
+                    types = Arrays.copyOf(types, eventNames.size());
+                types[eventId] = type;
+            }
+            return type;
+        }
+
+        private void checkpoint() {
+            if (messagesSinceCheckpoint == 0)
+                return;
+            messagesSinceCheckpoint = 0;
+            indexedValueStore.checkpoint(lastIndexRead());
+        }
+
+        private boolean handleAction() throws InvalidEventHandlerException {
+            // the first time this is run, we resume from the checkpoint if there is one, otherwise
+            // we move to the start of the current cycle
+            if (!hasMovedToStart) {
+                if (moveToCheckpoint(tailer)) {
+                    hasMovedToStart = true;
+                } else {
+                    @NotNull final RollingChronicleQueue chronicleQueue = (RollingChronicleQueue)
+                            VanillaIndexQueueView.this.chronicleQueue;
+                    final int cycle = chronicleQueue.cycle();
+                    long startOfCurrentCycle = chronicleQueue.rollCycle().toIndex(cycle, 0);
+                    hasMovedToStart = tailer.moveToIndex(startOfCurrentCycle);
+                    if (!hasMovedToStart)
+                        return false;
+                }
+            }
+
+            long currentSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+            if (currentSecond >= lastSecond + 10) {
+                lastSecond = currentSecond;
+                LOG.info("shard=" + shardId + ", messages read per second=" + messagesReadPerSecond / 10);
+                messagesReadPerSecond = 0;
+            }
+
+            try (DocumentContext dc = tailer.readingDocument()) {
+
+                if (!dc.isPresent()) {
+                    checkpoint();
+                    return false;
+                }
+
+                long start = dc.wire().bytes().readPosition();
+
+                try {
+                    for (; ; ) {
+                        dc.wire().consumePadding();
+
+                        if (dc.wire().bytes().readRemaining() == 0)
+                            break;
+
+                        final StringBuilder sb = acquireStringBuilder();
+                        @NotNull ValueIn read = dc.wire().read(sb);
+
+                        // skip the history if the message has one.
+                        if ("history".contentEquals(sb)) {
+                            read.marshallable(MessageHistory.get());
+                            sb.setLength(0);
+                            read = dc.wire().read(sb);
+                        }
+
+                        if (sb.length() == 0)
+                            break;
+
+                        // events owned by another shard are skipped without being deserialized
+                        if (!isOwner(sb)) {
+                            read.skipValue();
+                            continue;
+                        }
+
+                        final int eventId = eventNames.intern(sb);
+                        final Class<? extends Marshallable> type = type(eventId, sb);
+                        if (type == null)
+                            break;
+                        @NotNull final V v = (V) VanillaObjectCacheFactory.INSTANCE.get()
+                                .apply(type);
+                        long readPosition = dc.wire().bytes().readPosition();
+                        try {
+                            read.marshallable(v);
+                        } catch (Exception e) {
+
+                            @NotNull final String msg = dc.wire().bytes().toHexString(readPosition, dc.wire()
+                                    .bytes()
+                                    .readLimit() - readPosition);
+
+                            LOG.error("Error passing " + v.getClass().getSimpleName() + " bytes:\n"
+                                    + msg, e);
+                            return false;
+                        }
+
+                        if (!(v instanceof KeyedMarshallable))
+                            break;
+
+                        final Bytes bytes = Wires.acquireBytes();
+                        ((KeyedMarshallable) v).writeKey(bytes);
+
+                        messagesReadPerSecond++;
+
+                        indexedValueStore.put(eventId, bytes, v, dc.index());
+                        messagesSinceCheckpoint++;
+                    }
+
+                    // the index is published after the store has been updated, so a thread that
+                    // reads it will also see the updates
+                    lastIndexRead.lazySet(dc.index());
+
+                    if (messagesSinceCheckpoint >= CHECKPOINT_INTERVAL)
+                        checkpoint();
+
+                } catch (RuntimeException e) {
+                    Jvm.warn().on(getClass(), fromSizePrefixedBlobs(dc.wire().bytes(), start - 4), e);
+                }
+            }
+
+            return true;
+        }
     }
 
     /**
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.wire.Marshallable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static net.openhft.chronicle.wire.Wires.deepCopy;
+
+/**
+ * an on heap store, the content of this store is lost on restart.
+ * <p>
+ * The keys are interned off heap by a {@link KeyInterner} for each event name, so updating the
+ * value of a key that has already been seen does not create any garbage. Each event name must
+ * only be updated by one thread at a time.
+ * <p>
+ * A {@link SecondaryIndex} is maintained for each of the fields declared for an event name.
+ *
+ * @author Rob Austin.
+ */
+class VanillaIndexedValueStore<V extends Marshallable> implements IndexedValueStore<V> {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    @NotNull
+    private final EventNameInterner eventNames;
+    @NotNull
+    private final Map<String, Set<String>> secondaryIndexes;
+    @NotNull
+    private volatile EventIndex<V>[] eventIndexes = new EventIndex[0];
+    private volatile long checkpoint;
+
+    /**
+     * @param eventNames       the names of the events
+     * @param secondaryIndexes the names of the fields to index, by event name
+     */
+    VanillaIndexedValueStore(@NotNull EventNameInterner eventNames,
+                             @NotNull Map<String, Set<String>> secondaryIndexes) {
+        this.eventNames = eventNames;
+        this.secondaryIndexes = secondaryIndexes;
+    }
+
+    @Override
+    public void put(int eventId, @NotNull Bytes key, @NotNull V v, long index) {
+        @NotNull final EventIndex<V> eventIndex = acquireEventIndex(eventId);
+        final int size = eventIndex.keys.size();
+        final int slot = eventIndex.keys.intern(key);
+
+        final IndexedValue<V> indexedValue;
+        if (slot == size) {
+            indexedValue = new IndexedValue<>(deepCopy(v), index);
+            eventIndex.add(indexedValue);
+        } else {
+            indexedValue = eventIndex.get(slot);
+            ValueBuffer.copy(v, indexedValue.v());
+            indexedValue.index(index);
+        }
+
+        for (@NotNull SecondaryIndex<V> secondaryIndex : eventIndex.secondaryIndexes)
+            secondaryIndex.update(slot, indexedValue);
+    }
+
+    @Nullable
+    private EventIndex<V> eventIndex(int eventId) {
+        final EventIndex<V>[] eventIndexes = this.eventIndexes;
+        return eventId < eventIndexes.length ? eventIndexes[eventId] : null;
+    }
+
+    @NotNull
+    private EventIndex<V> acquireEventIndex(int eventId) {
+        final EventIndex<V> eventIndex = eventIndex(eventId);
+        return eventIndex != null ? eventIndex : newEventIndex(eventId);
+    }
+
+    @NotNull
+    private synchronized EventIndex<V> newEventIndex(int eventId) {
+        EventIndex<V>[] eventIndexes = this.eventIndexes;
+        if (eventId >= eventIndexes.length)
+            eventIndexes = Arrays.copyOf(eventIndexes, eventId + 1);
+
+        EventIndex<V> eventIndex = eventIndexes[eventId];
+        if (eventIndex == null) {
+            final Set<String> fields = secondaryIndexes.getOrDefault(eventNames.name(eventId),
+                    Collections.emptySet());
+            eventIndex = new EventIndex<>(fields);
+            eventIndexes[eventId] = eventIndex;
+        }
+        this.eventIndexes = eventIndexes;
+        return eventIndex;
+    }
+
+    @NotNull
+    @Override
+    public Stream<IndexedValue<V>> values(int eventId, @NotNull Class<? extends Marshallable> type) {
+        final EventIndex<V> eventIndex = eventIndex(eventId);
+        return eventIndex == null ? Stream.empty() : eventIndex.values();
+    }
+
+    @Nullable
+    @Override
+    public Stream<IndexedValue<V>> values(int eventId,
+                                          @NotNull Class<? extends Marshallable> type,
+                                          @NotNull String field,
+                                          @Nullable Comparable from,
+                                          @Nullable Comparable to) {
+        if (!secondaryIndexes.getOrDefault(eventNames.name(eventId), Collections.emptySet()).contains(field))
+            return null;
+
+        final EventIndex<V> eventIndex = eventIndex(eventId);
+        if (eventIndex == null)
+            return Stream.empty();
+
+        for (@NotNull SecondaryIndex<V> secondaryIndex : eventIndex.secondaryIndexes) {
+            if (secondaryIndex.fieldName().equals(field))
+                return secondaryIndex.values(from, to);
+        }
+        return null;
+    }
+
+    @Override
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    @Override
+    public void checkpoint(long index) {
+        this.checkpoint = index;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (EventIndex<V> eventIndex : eventIndexes) {
+            if (eventIndex != null)
+                Closeable.closeQuietly(eventIndex.keys);
+        }
+        eventIndexes = new EventIndex[0];
+    }
+
+    /**
+     * the latest values of an event, in the order their keys were first seen. The values are
+     * published so they can be read concurrently with the single thread that updates them.
+     */
+    private static final class EventIndex<V extends Marshallable> {
+        @NotNull
+        final KeyInterner keys = new KeyInterner(INITIAL_CAPACITY);
+        @NotNull
+        final SecondaryIndex<V>[] secondaryIndexes;
+        @NotNull
+        private volatile IndexedValue<V>[] values = new IndexedValue[INITIAL_CAPACITY];
+        private volatile int size;
+
+        EventIndex(@NotNull Set<String> fields) {
+            secondaryIndexes = fields.stream().map(SecondaryIndex::new).toArray(SecondaryIndex[]::new);
+        }
+
+        void add(@NotNull IndexedValue<V> indexedValue) {
+            IndexedValue<V>[] values = this.values;
+            final int size = this.size;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+                this.values = values;
+            }
+            values[size] = indexedValue;
+            // publishes the value
+            this.size = size + 1;
+        }
+
+        @NotNull
+        IndexedValue<V> get(int slot) {
+            return values[slot];
+        }
+
+        @NotNull
+        Stream<IndexedValue<V>> values() {
+            final int size = this.size;
+            return Arrays.stream(values, 0, size);
+        }
+    }
+}
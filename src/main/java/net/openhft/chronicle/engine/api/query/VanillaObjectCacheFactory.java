@@ -31,13 +31,17 @@ import java.util.function.Function;
 public enum VanillaObjectCacheFactory implements ObjectCacheFactory {
     INSTANCE;
 
+    /**
+     * the function is cached per thread, so calling {@link #get()} does not create any garbage
+     */
     @NotNull
-    ThreadLocal<Map<Class<Marshallable>, Marshallable>> t = ThreadLocal.withInitial
-            (LinkedHashMap::new);
+    ThreadLocal<Function<Class, Marshallable>> t = ThreadLocal.withInitial(() -> {
+        Map<Class<Marshallable>, Marshallable> cache = new LinkedHashMap<>();
+        return c -> cache.computeIfAbsent(c, ObjectUtils::newInstance);
+    });
 
     @Override
     public Function<Class, Marshallable> get() {
-        Map<Class<Marshallable>, Marshallable> cache = t.get();
-        return c -> cache.computeIfAbsent(c, ObjectUtils::newInstance);
+        return t.get();
     }
 }
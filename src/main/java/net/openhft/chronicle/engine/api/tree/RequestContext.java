@@ -136,6 +136,9 @@ public class RequestContext implements Cloneable {
     private boolean sealed = false;
     private String cluster = "cluster";
     private int throttlePeriodMs = 0;
+    private int nearCacheEntries = 0;
+    @Nullable
+    private String compression;
     private boolean dontPersist;
     private long token;
     private RequestContext() {
@@ -275,6 +278,7 @@ public class RequestContext implements Cloneable {
         parser.register(() -> "elementType", (s, v) -> v.typeLiteral(this, (o, x) -> o.type2 = x));
         parser.register(() -> "endSubscriptionAfterBootstrap", (s, v) -> v.bool(this, (o, x) -> o.endSubscriptionAfterBootstrap = x));
         parser.register(() -> "throttlePeriodMs", (s, v) -> v.int32(this, (o, x) -> o.throttlePeriodMs = x));
+        parser.register(() -> "nearCacheEntries", (s, v) -> v.int32(this, (o, x) -> o.nearCacheEntries = x));
         parser.register(() -> "entries", (s, v) -> v.int64(this, (o, x) -> o.entries = x));
         parser.register(() -> "averageValueSize", (s, v) -> v.int64(this, (o, x) -> o.averageValueSize = x));
         parser.register(() -> "dontPersist", (s, v) -> v.bool(this, (o, x) -> o.dontPersist = x));
@@ -530,6 +534,8 @@ public class RequestContext implements Cloneable {
                 ", recurse=" + recurse +
                 ", endSubscriptionAfterBootstrap=" + endSubscriptionAfterBootstrap +
                 ", throttlePeriodMs=" + throttlePeriodMs +
+                ", nearCacheEntries=" + nearCacheEntries +
+                ", compression=" + compression +
                 ", dontPersist=" + dontPersist +
                 '}';
     }
@@ -614,6 +620,36 @@ public class RequestContext implements Cloneable {
         return this;
     }
 
+    /**
+     * @return the number of entries a remote map caches on the client, or 0 if it does not. This
+     * is not passed to the server.
+     */
+    public int nearCacheEntries() {
+        return nearCacheEntries;
+    }
+
+    @NotNull
+    public RequestContext nearCacheEntries(int nearCacheEntries) {
+        this.nearCacheEntries = nearCacheEntries;
+        return this;
+    }
+
+    /**
+     * @return how the values of a persisted map are compressed, or null if they are not. This is
+     * set by the server configuration only, as it changes the format of the file.
+     */
+    @Nullable
+    public String compression() {
+        return compression;
+    }
+
+    @NotNull
+    public RequestContext compression(@Nullable String compression) {
+        checkSealed();
+        this.compression = compression;
+        return this;
+    }
+
     @NotNull
     public <E> RequestContext elementType(Class<E> eClass) {
         this.type2 = eClass;
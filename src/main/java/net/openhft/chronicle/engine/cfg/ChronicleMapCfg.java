@@ -55,6 +55,7 @@ public class ChronicleMapCfg implements Installable {
 
         if (entries != -1) rc.entries(entries);
         if (averageSize != -1) rc.averageValueSize(averageSize);
+        if (compression != null) rc.compression(compression);
 
         @NotNull ChronicleMapKeyValueStore chronicleMapKeyValueStore = new ChronicleMapKeyValueStore(rc, asset);
         asset.addView(ObjectKeyValueStore.class, chronicleMapKeyValueStore);
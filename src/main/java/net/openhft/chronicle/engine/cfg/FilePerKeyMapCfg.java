@@ -22,6 +22,7 @@ import net.openhft.chronicle.engine.api.tree.Asset;
 import net.openhft.chronicle.engine.api.tree.AssetTree;
 import net.openhft.chronicle.engine.api.tree.RequestContext;
 import net.openhft.chronicle.engine.map.AuthenticatedKeyValueStore;
+import net.openhft.chronicle.engine.map.FilePerKeyConfig;
 import net.openhft.chronicle.engine.map.FilePerKeyValueStore;
 import net.openhft.chronicle.engine.tree.VanillaAsset;
 import net.openhft.chronicle.wire.WireIn;
@@ -41,6 +42,10 @@ public class FilePerKeyMapCfg implements Installable {
     private boolean putReturnsNull, removeReturnsNull;
     private String compression;
     private String diskPath;
+    private long writeBehindIntervalMs;
+    private int writeBehindMaxDirtyKeys;
+    private long cacheMaxBytes;
+    private long memoryMapMinSize;
 
     @Nullable
     @Override
@@ -49,7 +54,15 @@ public class FilePerKeyMapCfg implements Installable {
         ((VanillaAsset) asset).enableTranslatingValuesToBytesStore();
         @NotNull String uri = path + "?putReturnsNull=" + putReturnsNull + "&removeReturnsNull=" + removeReturnsNull;
         @NotNull RequestContext rc = RequestContext.requestContext(uri);
-        asset.addView(AuthenticatedKeyValueStore.class, new FilePerKeyValueStore(rc, asset));
+        @NotNull FilePerKeyConfig config = new FilePerKeyConfig()
+                .writeBehindIntervalMs(writeBehindIntervalMs);
+        if (writeBehindMaxDirtyKeys > 0)
+            config.writeBehindMaxDirtyKeys(writeBehindMaxDirtyKeys);
+        if (cacheMaxBytes > 0)
+            config.cacheMaxBytes(cacheMaxBytes);
+        if (memoryMapMinSize > 0)
+            config.memoryMapMinSize(memoryMapMinSize);
+        asset.addView(AuthenticatedKeyValueStore.class, new FilePerKeyValueStore(rc, asset, config));
         @NotNull MapView mapView = assetTree.acquireMap(uri, keyType, valueType);
         LOGGER.info("Added FilePerKeyMap " + path + ", size: " + mapView.size());
         return null;
@@ -62,7 +75,11 @@ public class FilePerKeyMapCfg implements Installable {
                 .read(() -> "compression").text(this, (o, c) -> o.compression = c)
                 .read(() -> "putReturnsNull").bool(this, (o, e) -> o.putReturnsNull = e)
                 .read(() -> "removeReturnsNull").bool(this, (o, e) -> o.removeReturnsNull = e)
-                .read(() -> "diskPath").text(this, (o, s) -> o.diskPath = s);
+                .read(() -> "diskPath").text(this, (o, s) -> o.diskPath = s)
+                .read(() -> "writeBehindIntervalMs").int64(this, (o, e) -> o.writeBehindIntervalMs = e)
+                .read(() -> "writeBehindMaxDirtyKeys").int32(this, (o, e) -> o.writeBehindMaxDirtyKeys = e)
+                .read(() -> "cacheMaxBytes").int64(this, (o, e) -> o.cacheMaxBytes = e)
+                .read(() -> "memoryMapMinSize").int64(this, (o, e) -> o.memoryMapMinSize = e);
     }
 
     @NotNull
@@ -75,6 +92,10 @@ public class FilePerKeyMapCfg implements Installable {
                 ", removeReturnsNull=" + removeReturnsNull +
                 ", compression='" + compression + '\'' +
                 ", diskPath='" + diskPath + '\'' +
+                ", writeBehindIntervalMs=" + writeBehindIntervalMs +
+                ", writeBehindMaxDirtyKeys=" + writeBehindMaxDirtyKeys +
+                ", cacheMaxBytes=" + cacheMaxBytes +
+                ", memoryMapMinSize=" + memoryMapMinSize +
                 '}';
     }
 }
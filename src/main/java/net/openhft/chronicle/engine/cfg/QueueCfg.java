@@ -38,6 +38,17 @@ public class QueueCfg extends AbstractMarshallableCfg implements Installable {
     private WireType wireType = WireType.BINARY;
     @NotNull
     private String cluster = "";
+    @Nullable
+    private String indexPath = null;
+    private long indexEntries = 1 << 20;
+    private double indexAverageValueSize = 256;
+    private int indexShards = 1;
+    private long topicIndexEntries = 0;
+    /**
+     * a comma separated list of the fields to index, each given as {@code eventName.field}
+     */
+    @Nullable
+    private String secondaryIndexes = null;
 
     @Nullable
     @Override
@@ -55,8 +66,25 @@ public class QueueCfg extends AbstractMarshallableCfg implements Installable {
         ruleProvider.configQueueServer((VanillaAsset) asset);
         final QueueConfig qc = asset.getView(QueueConfig.class);
 
-        if (qc == null)
-            asset.addView(new QueueConfig(queueSource, acknowledgment, messageAdaptor, wireType));
+        if (qc == null) {
+            final QueueConfig queueConfig = new QueueConfig(queueSource, acknowledgment, messageAdaptor, wireType)
+                    .indexPath(indexPath)
+                    .indexEntries(indexEntries)
+                    .indexAverageValueSize(indexAverageValueSize)
+                    .indexShards(indexShards)
+                    .topicIndexEntries(topicIndexEntries);
+
+            if (secondaryIndexes != null) {
+                for (@NotNull String secondaryIndex : secondaryIndexes.split(",")) {
+                    final String[] eventNameAndField = secondaryIndex.trim().split("\\.");
+                    if (eventNameAndField.length != 2)
+                        throw new IllegalArgumentException("secondaryIndexes should be of the form " +
+                                "eventName.field, but was " + secondaryIndex);
+                    queueConfig.secondaryIndex(eventNameAndField[0], eventNameAndField[1]);
+                }
+            }
+            asset.addView(queueConfig);
+        }
 
         assetTree.acquireView(requestContext.view("queue")
                 .type(topicClass)
@@ -22,18 +22,25 @@ import net.openhft.chronicle.network.connection.TcpChannelHub;
 import net.openhft.chronicle.wire.ValueIn;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static net.openhft.chronicle.engine.collection.CollectionWireHandler.EventId;
+import static net.openhft.chronicle.engine.collection.CollectionWireHandler.Params;
 import static net.openhft.chronicle.engine.collection.CollectionWireHandler.EventId.*;
 import static net.openhft.chronicle.network.connection.CoreFields.reply;
 
 public class ClientWiredStatelessChronicleCollection<U, E extends Collection<U>> extends
         AbstractStatelessClient<EventId> implements Collection<U> {
 
+    private static final int CHUNK_SIZE = Integer.getInteger("remoteCollection.chunkSize", 1024);
+
     @NotNull
     private final Function<ValueIn, U> consumer;
     @NotNull
@@ -63,34 +70,14 @@ public class ClientWiredStatelessChronicleCollection<U, E extends Collection<U>>
         return proxyReturnBooleanWithArgs(contains, o);
     }
 
-    @Override
-    @NotNull
-    public Iterator<U> iterator() {
-        // todo improve numberOfSegments
-        final int numberOfSegments = proxyReturnUint16(EventId.numberOfSegments);
-
-        // todo iterate the segments for the moment we just assume one segment
-        return segmentSet(1).iterator();
-    }
-
     /**
-     * gets the iterator for a given segment
-     *
-     * @param segment the maps segment number
-     * @return and iterator for the {@code segment}
+     * reads the collection a chunk at a time as the iterator is consumed, so neither the server nor
+     * the client hold more than a chunk of a large collection.
      */
+    @Override
     @NotNull
-    private E segmentSet(int segment) {
-
-        return proxyReturnWireConsumerInOut(iterator, reply, valueOut -> valueOut.uint16(segment),
-                read -> {
-                    final E e = factory.get();
-                    read.sequence(e, (e2, s) -> {
-                        while (read.hasNextSequenceItem())
-                            e2.add(consumer.apply(read));
-                    });
-                    return e;
-                });
+    public Iterator<U> iterator() {
+        return new ChunkedIterator();
     }
 
     @Override
@@ -102,17 +89,8 @@ public class ClientWiredStatelessChronicleCollection<U, E extends Collection<U>>
     @NotNull
     private E asCollection() {
         final E e = factory.get();
-        final int numberOfSegments = proxyReturnUint16(EventId.numberOfSegments);
-
-        for (long j = 0; j < numberOfSegments; j++) {
-            final long i = j;
-            proxyReturnWireConsumerInOut(iterator, reply, valueOut -> valueOut.uint16(i),
-                    read -> read.sequence(e, (e2, r) -> {
-                        while (r.hasNextSequenceItem()) {
-                            e2.add(consumer.apply(r));
-                        }
-                    }));
-        }
+        for (Iterator<U> iterator = iterator(); iterator.hasNext(); )
+            e.add(iterator.next());
         return e;
     }
 
@@ -156,4 +134,47 @@ public class ClientWiredStatelessChronicleCollection<U, E extends Collection<U>>
     public void clear() {
         proxyReturnVoid(clear);
     }
-}
\ No newline at end of file
+
+    private class ChunkedIterator implements Iterator<U> {
+        private final List<U> chunk = new ArrayList<>();
+        private int index;
+        // the cursor to read the next chunk from, 0 to start, or -1 after the last chunk
+        private long cursor;
+
+        @Override
+        public boolean hasNext() {
+            while (index >= chunk.size() && cursor >= 0)
+                readChunk();
+            return index < chunk.size();
+        }
+
+        @Override
+        public U next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return chunk.get(index++);
+        }
+
+        private void readChunk() {
+            chunk.clear();
+            index = 0;
+            final long from = cursor;
+            final long next = proxyReturnWireConsumerInOut(nextChunk, reply,
+                    valueOut -> valueOut.marshallable(m -> m
+                            .write(Params.cursor).int64(from)
+                            .write(Params.maxItems).int32(CHUNK_SIZE)),
+                    read -> read.applyToMarshallable(w -> {
+                        w.read(Params.items).sequence(chunk, (c, r) -> {
+                            while (r.hasNextSequenceItem())
+                                c.add(consumer.apply(r));
+                        });
+                        return w.read(Params.cursor).int64();
+                    }));
+
+            if (next < 0)
+                throw new ConcurrentModificationException("The server dropped the cursor of this " +
+                        "iterator, as too many iterators were in use");
+            cursor = next == 0 ? -1 : next;
+        }
+    }
+}
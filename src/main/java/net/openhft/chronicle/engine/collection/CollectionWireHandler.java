@@ -31,6 +31,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -42,6 +45,8 @@ public class CollectionWireHandler<U, C extends Collection<U>> {
 
     private static final int SIZE_OF_SIZE = 4;
     private static final Logger LOG = LoggerFactory.getLogger(CollectionWireHandler.class);
+    private static final int MAX_CURSORS = Integer.getInteger("collection.maxCursors", 64);
+    private static final int MAX_CHUNK_BYTES = Integer.getInteger("collection.maxChunkBytes", 1 << 20);
     private Function<ValueIn, U> fromWire;
     private BiConsumer<ValueOut, U> toWire;
 
@@ -52,6 +57,14 @@ public class CollectionWireHandler<U, C extends Collection<U>> {
     private C underlyingCollection;
     private long tid;
     private Supplier<C> factory;
+    // the iterators part way through a collection, by cursor, the least recently read are dropped
+    private final Map<Long, Iterator<U>> cursors = new LinkedHashMap<Long, Iterator<U>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Iterator<U>> eldest) {
+            return size() > MAX_CURSORS;
+        }
+    };
+    private long nextCursor = 1;
 
     private final ReadMarshallable dataConsumer = new ReadMarshallable() {
         @Override
@@ -81,6 +94,15 @@ public class CollectionWireHandler<U, C extends Collection<U>> {
                         return;
                     }
 
+                    if (EventId.nextChunk.contentEquals(eventName)) {
+                        valueIn.marshallable(m -> {
+                            final long cursor = m.read(Params.cursor).int64();
+                            final int maxItems = m.read(Params.maxItems).int32();
+                            writeChunk(out.writeEventName(CoreFields.reply), cursor, maxItems);
+                        });
+                        return;
+                    }
+
                     if (EventId.numberOfSegments.contentEquals(eventName)) {
                         outWire.write(CoreFields.reply).int32(1);
                         return;
@@ -169,6 +191,44 @@ public class CollectionWireHandler<U, C extends Collection<U>> {
         }
     };
 
+    /**
+     * writes up to {@code maxItems} of the collection, and no more than {@code
+     * collection.maxChunkBytes}, continuing from {@code cursor}, so the size of a reply does not
+     * depend on the size of the collection.
+     *
+     * @param reply    to write the chunk to
+     * @param cursor   the cursor returned with the previous chunk, or 0 to start from the beginning
+     * @param maxItems the most items to write
+     */
+    private void writeChunk(@NotNull ValueOut reply, long cursor, int maxItems) {
+        @Nullable final Iterator<U> iterator = cursor == 0
+                ? underlyingCollection.iterator()
+                : cursors.remove(cursor);
+        if (iterator == null) {
+            // the cursor was dropped, as more than collection.maxCursors were in use
+            reply.marshallable(m -> m.write(Params.items).sequence(v -> {
+            }).write(Params.cursor).int64(-1));
+            return;
+        }
+
+        @NotNull @SuppressWarnings("ConstantConditions") final Bytes<?> bytes = outWire.bytes();
+        final long start = bytes.writePosition();
+        reply.marshallable(m -> {
+            m.write(Params.items).sequence(v -> {
+                for (int i = 0; i < maxItems && iterator.hasNext()
+                        && bytes.writePosition() - start < MAX_CHUNK_BYTES; i++)
+                    toWire.accept(v, iterator.next());
+            });
+
+            long next = 0;
+            if (iterator.hasNext()) {
+                next = nextCursor++;
+                cursors.put(next, iterator);
+            }
+            m.write(Params.cursor).int64(next);
+        });
+    }
+
     private C collectionFromWire() {
         C c = factory.get();
         @NotNull @SuppressWarnings("ConstantConditions") final ValueIn valueIn = ((Wire) outWire).getValueIn();
@@ -210,6 +270,9 @@ public class CollectionWireHandler<U, C extends Collection<U>> {
     enum Params implements WireKey {
         key,
         segment,
+        cursor,
+        maxItems,
+        items
     }
 
     enum EventId implements ParameterizeWireKey {
@@ -225,7 +288,8 @@ public class CollectionWireHandler<U, C extends Collection<U>> {
         numberOfSegments,
         contains(CollectionWireHandler.Params.key),
         identifier,
-        iterator(CollectionWireHandler.Params.segment);
+        iterator(CollectionWireHandler.Params.segment),
+        nextChunk(CollectionWireHandler.Params.cursor, CollectionWireHandler.Params.maxItems);
 
         private final WireKey[] params;
 
@@ -29,6 +29,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 /*
  * Created by Peter Lawrey on 22/05/15.
@@ -172,6 +173,12 @@ public class AbstractKeyValueStore<K, V> implements KeyValueStore<K, V> {
         return kvStore.putIfAbsent(key, value);
     }
 
+    @Nullable
+    @Override
+    public V compute(K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return kvStore.compute(key, remappingFunction);
+    }
+
     @Override
     public boolean keyedView() {
         return kvStore.keyedView();
@@ -58,6 +58,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
 import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
@@ -146,6 +147,10 @@ public class ChronicleMapKeyValueStore<K, V> implements ObjectKeyValueStore<K, V
             builder.putReturnsNull(true);
         if (context.removeReturnsNull() != Boolean.FALSE)
             builder.removeReturnsNull(true);
+        @Nullable final CompressingValueMarshaller<V> valueMarshaller =
+                CompressingValueMarshaller.forCompression(context.compression(), context.valueType());
+        if (valueMarshaller != null)
+            builder.valueMarshaller(valueMarshaller);
         if (averageValueSize > 0)
             builder.averageValueSize(averageValueSize);
         if (maxEntries > 0) builder.entries(maxEntries + 1); // we have to add a head room of 1
@@ -265,6 +270,47 @@ public class ChronicleMapKeyValueStore<K, V> implements ObjectKeyValueStore<K, V
             return null;
     }
 
+    @Override
+    public boolean replaceIfEqual(K key, V oldValue, V newValue) {
+        return chronicleMap.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public boolean removeIfEqual(K key, V value) {
+        return chronicleMap.remove(key, value);
+    }
+
+    @Nullable
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return chronicleMap.putIfAbsent(key, value);
+    }
+
+    /**
+     * Chronicle Map 2 has no public way to run a function under the segment lock for immutable
+     * values, so this retries a putIfAbsent, replace or remove of the old value, each of which holds
+     * the segment lock, until no other update to the key came in between.
+     */
+    @Nullable
+    @Override
+    public V compute(K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        for (; ; ) {
+            @Nullable final V oldValue = chronicleMap.get(key);
+            @Nullable final V newValue = remappingFunction.apply(key, oldValue);
+            if (oldValue == null) {
+                if (newValue == null || chronicleMap.putIfAbsent(key, newValue) == null)
+                    return newValue;
+
+            } else if (newValue == null) {
+                if (chronicleMap.remove(key, oldValue))
+                    return null;
+
+            } else if (chronicleMap.replace(key, oldValue, newValue)) {
+                return newValue;
+            }
+        }
+    }
+
     @Override
     public V getUsing(K key, @Nullable Object value) {
         if (value != null)
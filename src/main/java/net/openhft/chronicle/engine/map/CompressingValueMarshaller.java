@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireType;
+import net.openhft.lang.io.Bytes;
+import net.openhft.lang.io.serialization.BytesMarshaller;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores the values of a Chronicle Map in binary wire, deflated once they are at least {@code
+ * chronicleMap.compressionMinSize} bytes. Smaller values, and values which do not get smaller, are
+ * stored as they are. The buffers used are reused by each thread.
+ * <p>
+ * Chronicle Map keeps this marshaller with the map, so it is Serializable.
+ */
+final class CompressingValueMarshaller<V> implements BytesMarshaller<V> {
+    static final String NONE = "none";
+    static final String DEFLATE = "deflate";
+
+    private static final long serialVersionUID = 0L;
+    private static final int MIN_SIZE = Integer.getInteger("chronicleMap.compressionMinSize", 256);
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    @NotNull
+    private final Class<V> valueType;
+    private final int minSize;
+
+    CompressingValueMarshaller(@NotNull Class<V> valueType, int minSize) {
+        this.valueType = valueType;
+        this.minSize = minSize;
+    }
+
+    /**
+     * @param compression the compression configured for the map
+     * @param valueType   the type of the values
+     * @return the marshaller for the compression, or null if the values are not compressed
+     * @throws IllegalArgumentException if the compression is not supported
+     */
+    @Nullable
+    static <V> CompressingValueMarshaller<V> forCompression(@Nullable String compression,
+                                                          @NotNull Class<V> valueType) {
+        if (compression == null || compression.isEmpty() || NONE.equalsIgnoreCase(compression))
+            return null;
+        if (DEFLATE.equalsIgnoreCase(compression))
+            return new CompressingValueMarshaller<>(valueType, MIN_SIZE);
+        throw new IllegalArgumentException("Unsupported compression " + compression +
+                ", the compressions supported are " + NONE + " and " + DEFLATE);
+    }
+
+    @Override
+    public void write(@NotNull Bytes bytes, @NotNull V v) {
+        @NotNull final Buffers b = BUFFERS.get();
+        b.serialized.clear();
+        b.serializedWire.getValueOut().object(v);
+        final int length = (int) b.serialized.readRemaining();
+        @NotNull final byte[] serialized = b.serialized.underlyingObject().array();
+
+        final int compressedLength = length < minSize ? -1 : b.deflate(serialized, length);
+        if (compressedLength < 0) {
+            bytes.writeByte(RAW);
+            bytes.writeStopBit(length);
+            bytes.write(serialized, 0, length);
+        } else {
+            bytes.writeByte(DEFLATED);
+            bytes.writeStopBit(length);
+            bytes.writeStopBit(compressedLength);
+            bytes.write(b.compressed, 0, compressedLength);
+        }
+    }
+
+    @Nullable
+    @Override
+    public V read(@NotNull Bytes bytes) {
+        return read(bytes, null);
+    }
+
+    @Nullable
+    @Override
+    public V read(@NotNull Bytes bytes, @Nullable V using) {
+        @NotNull final Buffers b = BUFFERS.get();
+        final byte encoding = bytes.readByte();
+        final int length = (int) bytes.readStopBit();
+        b.ensureUncompressed(length);
+
+        switch (encoding) {
+            case RAW:
+                bytes.readFully(b.uncompressed, 0, length);
+                break;
+
+            case DEFLATED:
+                final int compressedLength = (int) bytes.readStopBit();
+                b.ensureCompressed(compressedLength);
+                bytes.readFully(b.compressed, 0, compressedLength);
+                b.inflate(compressedLength, length);
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown value encoding " + encoding);
+        }
+
+        b.uncompressedBytes.readPositionRemaining(0, length);
+        return b.uncompressedWire.getValueIn().object(using, valueType);
+    }
+
+    static final class Buffers {
+        final net.openhft.chronicle.bytes.Bytes<ByteBuffer> serialized =
+                net.openhft.chronicle.bytes.Bytes.elasticHeapByteBuffer(256);
+        final Wire serializedWire = WireType.BINARY.apply(serialized);
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        final Inflater inflater = new Inflater();
+        byte[] compressed = new byte[256];
+        byte[] uncompressed;
+        net.openhft.chronicle.bytes.Bytes<byte[]> uncompressedBytes;
+        Wire uncompressedWire;
+
+        Buffers() {
+            ensureUncompressed(256);
+        }
+
+        void ensureCompressed(int length) {
+            if (compressed.length < length)
+                compressed = new byte[Math.max(length, compressed.length * 2)];
+        }
+
+        void ensureUncompressed(int length) {
+            if (uncompressed != null && uncompressed.length >= length)
+                return;
+            uncompressed = new byte[Math.max(length, uncompressed == null ? 0 : uncompressed.length * 2)];
+            uncompressedBytes = net.openhft.chronicle.bytes.Bytes.wrapForRead(uncompressed);
+            uncompressedWire = WireType.BINARY.apply(uncompressedBytes);
+        }
+
+        /**
+         * @return the length deflated into {@link #compressed}, or -1 if it is not smaller
+         */
+        int deflate(@NotNull byte[] input, int length) {
+            ensureCompressed(length);
+            deflater.reset();
+            deflater.setInput(input, 0, length);
+            deflater.finish();
+            final int compressedLength = deflater.deflate(compressed, 0, length);
+            return deflater.finished() && compressedLength < length ? compressedLength : -1;
+        }
+
+        void inflate(int compressedLength, int length) {
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            try {
+                if (inflater.inflate(uncompressed, 0, length) != length)
+                    throw new IllegalStateException("Expected a value of " + length + " bytes");
+            } catch (DataFormatException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
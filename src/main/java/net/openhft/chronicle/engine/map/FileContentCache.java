@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import net.openhft.chronicle.bytes.BytesStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The contents of the files of a {@link FilePerKeyValueStore}, as last read by its watcher. The
+ * total size of the contents held is bounded, when it is exceeded the contents of the least
+ * recently used files are released. The record of an evicted file is kept without its contents,
+ * so the watcher can still tell an update from an insert.
+ * <p>
+ * A record is only replaced or invalidated by the watcher and the store's own writes, so a hit
+ * does not check the file's last modified time.
+ */
+class FileContentCache {
+
+    private final Map<File, FileRecord<BytesStore>> records = new ConcurrentHashMap<>();
+    // the size of the contents held for each file, in least recently used order
+    private final LinkedHashMap<File, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long bytes;
+
+    FileContentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the record of the file, or {@code null} if it has not been read by the watcher
+     */
+    @Nullable
+    FileRecord<BytesStore> get(@NotNull File file) {
+        return records.get(file);
+    }
+
+    /**
+     * @return the contents of the file reserved, or {@code null} if they are not held or are
+     * no longer valid
+     */
+    @Nullable
+    BytesStore contents(@NotNull File file) {
+        final FileRecord<BytesStore> record = records.get(file);
+        if (record != null && record.valid) {
+            @Nullable final BytesStore contents = record.contents();
+            if (contents != null) {
+                hits.increment();
+                synchronized (sizes) {
+                    // marks the file as recently used
+                    sizes.get(file);
+                }
+                return contents;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * holds the {@code contents} of the file, the cache takes over the reference to them
+     */
+    void put(@NotNull File file, long timestamp, @NotNull BytesStore contents) {
+        final long size = contents.readRemaining();
+        synchronized (sizes) {
+            @Nullable final FileRecord<BytesStore> previous = records.put(file, new FileRecord<>(timestamp, contents));
+            release(file, previous);
+            sizes.put(file, size);
+            bytes += size;
+            evict();
+        }
+    }
+
+    /**
+     * removes the record of the file
+     *
+     * @return the contents of the file reserved, or {@code null} if they were not held
+     */
+    @Nullable
+    BytesStore remove(@NotNull File file) {
+        synchronized (sizes) {
+            @Nullable final FileRecord<BytesStore> record = records.remove(file);
+            if (record == null)
+                return null;
+            @Nullable final BytesStore contents = record.contents();
+            release(file, record);
+            return contents;
+        }
+    }
+
+    private void release(@NotNull File file, @Nullable FileRecord<BytesStore> record) {
+        if (record == null)
+            return;
+        @Nullable final Long size = sizes.remove(file);
+        // an evicted record has already been released
+        if (size == null)
+            return;
+        bytes -= size;
+        record.release();
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<File, Long>> iterator = sizes.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            final Map.Entry<File, Long> eldest = iterator.next();
+            iterator.remove();
+            bytes -= eldest.getValue();
+            @Nullable final FileRecord<BytesStore> record = records.get(eldest.getKey());
+            if (record != null)
+                record.release();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * releases the contents held, so memory mapped files are unmapped when the store is closed
+     */
+    void clear() {
+        synchronized (sizes) {
+            for (@NotNull File file : new ArrayList<>(sizes.keySet()))
+                release(file, records.get(file));
+            records.clear();
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    long bytes() {
+        synchronized (sizes) {
+            return bytes;
+        }
+    }
+}
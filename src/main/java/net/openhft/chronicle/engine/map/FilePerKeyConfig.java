@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The optional behaviour of a {@link FilePerKeyValueStore}, by default every update is written
+ * to its file immediately.
+ *
+ * @author Rob Austin.
+ */
+public class FilePerKeyConfig {
+
+    long writeBehindIntervalMs;
+    int writeBehindMaxDirtyKeys = 1024;
+    long cacheMaxBytes = 64 << 20;
+    long memoryMapMinSize = Long.MAX_VALUE;
+
+    /**
+     * @return if greater than zero, updates are held in memory and written to their files at
+     * most this many milliseconds later, so a key updated many times in this interval is only
+     * written once
+     */
+    public long writeBehindIntervalMs() {
+        return writeBehindIntervalMs;
+    }
+
+    @NotNull
+    public FilePerKeyConfig writeBehindIntervalMs(long writeBehindIntervalMs) {
+        this.writeBehindIntervalMs = writeBehindIntervalMs;
+        return this;
+    }
+
+    /**
+     * @return the number of keys waiting to be written, at which they are written without
+     * waiting for the end of the {@link #writeBehindIntervalMs()}
+     */
+    public int writeBehindMaxDirtyKeys() {
+        return writeBehindMaxDirtyKeys;
+    }
+
+    @NotNull
+    public FilePerKeyConfig writeBehindMaxDirtyKeys(int writeBehindMaxDirtyKeys) {
+        this.writeBehindMaxDirtyKeys = writeBehindMaxDirtyKeys;
+        return this;
+    }
+
+    /**
+     * @return the total size of the file contents held in memory, once exceeded the contents of
+     * the least recently read files are released
+     */
+    public long cacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    @NotNull
+    public FilePerKeyConfig cacheMaxBytes(long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+        return this;
+    }
+
+    /**
+     * @return the size of file, from which values are read by memory mapping the file rather than
+     * copying it into a buffer, by default no values are memory mapped
+     */
+    public long memoryMapMinSize() {
+        return memoryMapMinSize;
+    }
+
+    @NotNull
+    public FilePerKeyConfig memoryMapMinSize(long memoryMapMinSize) {
+        this.memoryMapMinSize = memoryMapMinSize;
+        return this;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehindIntervalMs > 0;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "FilePerKeyConfig{" +
+                "writeBehindIntervalMs=" + writeBehindIntervalMs +
+                ", writeBehindMaxDirtyKeys=" + writeBehindMaxDirtyKeys +
+                ", cacheMaxBytes=" + cacheMaxBytes +
+                ", memoryMapMinSize=" + memoryMapMinSize +
+                '}';
+    }
+}
@@ -20,7 +20,9 @@ package net.openhft.chronicle.engine.map;
 import com.sun.nio.file.SensitivityWatchEventModifier;
 import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.bytes.NativeBytesStore;
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
 import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.io.IORuntimeException;
 import net.openhft.chronicle.core.util.ThrowingConsumer;
@@ -47,10 +49,11 @@ import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.nio.file.WatchEvent.Kind;
 import java.util.AbstractMap.SimpleEntry;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Stream;
 
 import static net.openhft.chronicle.core.Jvm.pause;
@@ -72,7 +75,9 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
 
     private final Path dirPath;
     //Use BytesStore so that it can be shared safely between threads
-    private final Map<File, FileRecord<BytesStore>> lastFileRecordMap = new ConcurrentHashMap<>();
+    private final FileContentCache cache;
+    // the keys of the map, read from the directory on start up and kept up to date by the FPMWatcher
+    private final Set<String> keys = ConcurrentHashMap.newKeySet();
 
     @NotNull
     private final Thread fileFpmWatcher;
@@ -82,15 +87,30 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
     private final Asset asset;
 
     private final WatchService watcher;
+    // the latest values not yet written to their files, when write behind is enabled
+    @Nullable
+    private final Map<Path, BytesStore> dirty;
+    @Nullable
+    private final Thread writeBehindThread;
+    // held while a value is written behind, and while files are deleted, so a removed key's
+    // file is not written back by a flush in progress
+    private final Object flushLock = new Object();
+    private final int writeBehindMaxDirtyKeys;
+    private final long memoryMapMinSize;
     private volatile boolean closed = false;
 
     public FilePerKeyValueStore(@NotNull RequestContext context, @NotNull Asset asset) throws IORuntimeException, AssetNotFoundException {
-        this(context, asset, context.type(), context.basePath(), context.name());
+        this(context, asset, new FilePerKeyConfig());
+    }
+
+    public FilePerKeyValueStore(@NotNull RequestContext context, @NotNull Asset asset, @NotNull FilePerKeyConfig config) throws IORuntimeException, AssetNotFoundException {
+        this(context, asset, context.type(), context.basePath(), context.name(), config);
         asset.registerView(StringBytesStoreKeyValueStore.class, this);
     }
 
-    private FilePerKeyValueStore(RequestContext context, @NotNull Asset asset, Class type, String basePath, String name) throws AssetNotFoundException {
+    private FilePerKeyValueStore(RequestContext context, @NotNull Asset asset, Class type, String basePath, String name, @NotNull FilePerKeyConfig config) throws AssetNotFoundException {
         this.asset = asset;
+        this.cache = new FileContentCache(config.cacheMaxBytes());
         assert type == String.class;
 
         @NotNull String dirName = basePath == null ? name : basePath + "/" + name;
@@ -108,23 +128,161 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
         } catch (IOException e) {
             throw new IORuntimeException(e);
         }
+        scanKeys();
 
         fileFpmWatcher = new Thread(new FPMWatcher(watcher), Threads.threadGroupPrefix() + " watcher for " + dirName);
         fileFpmWatcher.setDaemon(true);
         fileFpmWatcher.start();
+
+        writeBehindMaxDirtyKeys = config.writeBehindMaxDirtyKeys();
+        memoryMapMinSize = config.memoryMapMinSize();
+        if (config.isWriteBehind()) {
+            dirty = new ConcurrentHashMap<>();
+            final long intervalNs = TimeUnit.MILLISECONDS.toNanos(config.writeBehindIntervalMs());
+            writeBehindThread = new Thread(() -> runWriteBehind(intervalNs), Threads.threadGroupPrefix() + " write behind for " + dirName);
+            writeBehindThread.setDaemon(true);
+            writeBehindThread.start();
+        } else {
+            dirty = null;
+            writeBehindThread = null;
+        }
+
         subscriptions = asset.acquireView(RawKVSSubscription.class, context);
         subscriptions.setKvStore(this);
     }
 
+    private void runWriteBehind(long intervalNs) {
+        while (!closed) {
+            LockSupport.parkNanos(this, intervalNs);
+            try {
+                flush();
+            } catch (Throwable t) {
+                if (!closed)
+                    Jvm.warn().on(getClass(), t);
+            }
+        }
+    }
+
+    /**
+     * writes the values held by the write behind to their files, this is called periodically,
+     * when the number of values held reaches the threshold and on close.
+     */
+    public void flush() {
+        if (dirty == null)
+            return;
+        for (@NotNull Path path : dirty.keySet())
+            flush(path);
+    }
+
+    /**
+     * writes the value of the key waiting to be written, if any. The value stays in the dirty
+     * map until it has been written, so reads of the key see it, but the file is not written
+     * while holding the map's lock, so reads and writes of other keys are not held up by the I/O.
+     */
+    private void flush(@NotNull Path path) {
+        assert dirty != null;
+        // a key removed while its file is written would have the file written back afterwards
+        synchronized (flushLock) {
+            @Nullable final BytesStore value = pending(path);
+            if (value == null)
+                return;
+            try {
+                writeToFile(path, value);
+            } catch (RuntimeException | AssertionError e) {
+                // keep the value, so the write is retried on the next flush
+                Jvm.warn().on(getClass(), "Unable to write " + path, e);
+                value.release();
+                return;
+            }
+            FileRecord fr = cache.get(path.toFile());
+            if (fr != null) fr.valid = false;
+
+            // drops the value written, unless it was replaced while it was being written
+            @NotNull final boolean[] written = {false};
+            dirty.computeIfPresent(path, (p, v) -> {
+                if (v != value)
+                    return v;
+                written[0] = true;
+                return null;
+            });
+            if (written[0])
+                value.release();
+            value.release();
+        }
+    }
+
+    /**
+     * holds a copy of the value until it is flushed, replacing any value of the key not yet
+     * written, so a key updated many times between flushes is only written once.
+     *
+     * @return {@code true} if a value of the key was waiting to be written
+     */
+    private boolean writeBehind(@NotNull Path path, @NotNull BytesStore value) {
+        assert dirty != null;
+        @Nullable BytesStore previous = dirty.put(path, value.copy());
+        if (previous != null)
+            previous.release();
+        if (dirty.size() >= writeBehindMaxDirtyKeys)
+            LockSupport.unpark(writeBehindThread);
+        return previous != null;
+    }
+
+    /**
+     * @return the value waiting to be written, reserved, or {@code null} if there is none
+     */
+    @Nullable
+    private BytesStore pending(@NotNull Path path) {
+        if (dirty == null)
+            return null;
+        return dirty.computeIfPresent(path, (p, v) -> {
+            v.reserve();
+            return v;
+        });
+    }
+
+    /**
+     * drops the value of the key waiting to be written, if any
+     *
+     * @return {@code true} if there was one
+     */
+    private boolean discardPending(@NotNull Path path) {
+        if (dirty == null)
+            return false;
+        @Nullable BytesStore pending = dirty.remove(path);
+        if (pending == null)
+            return false;
+        pending.release();
+        return true;
+    }
+
     @NotNull
     @Override
     public RawKVSSubscription<String, BytesStore> subscription(boolean createIfAbsent) {
         return subscriptions;
     }
 
+    /**
+     * reads the keys from the directory, this is done once on start up, and again only if the
+     * watcher has missed events
+     */
+    void scanKeys() {
+        @NotNull final Set<String> found = new HashSet<>();
+        try (Stream<Path> files = Files.walk(dirPath)) {
+            files.filter(p -> !Files.isDirectory(p))
+                    .map(p -> p.getFileName().toString())
+                    .filter(FilePerKeyValueStore::isVisible)
+                    .forEach(found::add);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        keys.addAll(found);
+        // keys with a value waiting to be written are not on disk yet
+        keys.removeIf(k -> !found.contains(k) && (dirty == null || !dirty.containsKey(dirPath.resolve(k))));
+    }
+
     @Override
     public long longSize() {
-        return getFiles().count();
+        return keys.size();
     }
 
     @Nullable
@@ -140,7 +298,7 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
     }
 
     private void keysFor0(@NotNull SubscriptionConsumer<String> stringConsumer) {
-        getFiles().forEach(ThrowingConsumer.asConsumer(p -> stringConsumer.accept(p.getFileName().toString())));
+        keys.forEach(ThrowingConsumer.asConsumer(stringConsumer::accept));
     }
 
     @Override
@@ -171,7 +329,7 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
 
     @Override
     public Iterator<String> keySetIterator() {
-        return getFiles().map(p -> p.getFileName().toString()).iterator();
+        return Collections.unmodifiableSet(keys).iterator();
     }
 
     @Override
@@ -197,8 +355,13 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
     public boolean put(String key, @NotNull BytesStore value) {
         if (closed) throw new IllegalStateException("closed");
         Path path = dirPath.resolve(key);
-        FileRecord fr = lastFileRecordMap.get(path.toFile());
+        FileRecord fr = cache.get(path.toFile());
+        if (dirty != null) {
+            keys.add(key);
+            return writeBehind(path, value) || fr != null;
+        }
         writeToFile(path, value);
+        keys.add(key);
         if (fr != null) fr.valid = false;
         return fr != null;
     }
@@ -209,8 +372,13 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
     public BytesStore getAndPut(String key, @NotNull BytesStore value) {
         if (closed) throw new IllegalStateException("closed");
         Path path = dirPath.resolve(key);
-        FileRecord fr = lastFileRecordMap.get(path.toFile());
+        FileRecord fr = cache.get(path.toFile());
         @Nullable BytesStore existingValue = getFileContents(path, null);
+        keys.add(key);
+        if (dirty != null) {
+            writeBehind(path, value);
+            return existingValue;
+        }
         writeToFile(path, value);
         if (fr != null) fr.valid = false;
         return existingValue;
@@ -224,7 +392,11 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
         @Nullable BytesStore existing = get(key);
         if (existing != null) {
             try {
-                deleteFile(dirPath.resolve(key));
+                synchronized (flushLock) {
+                    discardPending(dirPath.resolve(key));
+                    deleteFile(dirPath.resolve(key));
+                }
+                keys.remove(key);
             } catch (IOException e) {
                 Jvm.warn().on(getClass(), "Unable to delete " + key);
             }
@@ -236,33 +408,44 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
     public boolean remove(String key) {
         if (closed) throw new IllegalStateException("closed");
         Path path = dirPath.resolve(key);
-        if (path.toFile().isFile())
-            try {
-                deleteFile(path);
-            } catch (IOException e) {
-                Jvm.warn().on(getClass(), "Unable to delete " + key);
-            }
+        boolean wasPending;
+        synchronized (flushLock) {
+            wasPending = discardPending(path);
+            if (path.toFile().isFile())
+                try {
+                    deleteFile(path);
+                } catch (IOException e) {
+                    Jvm.warn().on(getClass(), "Unable to delete " + key);
+                }
+        }
+        keys.remove(key);
         // todo check this is removed in watcher
-        FileRecord fr = lastFileRecordMap.get(path.toFile());
-        return fr != null;
+        FileRecord fr = cache.get(path.toFile());
+        return fr != null || wasPending;
     }
 
     @Override
     public void clear() {
         @NotNull AtomicInteger count = new AtomicInteger();
-        Stream<Path> files = getFiles();
-        files.forEach((path) -> {
-            try {
-                deleteFile(path);
-            } catch (Exception e) {
-                count.incrementAndGet();
-            }
-        });
+        synchronized (flushLock) {
+            if (dirty != null)
+                dirty.keySet().forEach(this::discardPending);
+            Stream<Path> files = getFiles();
+            files.forEach((path) -> {
+                try {
+                    deleteFile(path);
+                    keys.remove(path.getFileName().toString());
+                } catch (Exception e) {
+                    count.incrementAndGet();
+                }
+            });
+        }
         if (count.intValue() > 0) {
             pause(100);
             getFiles().forEach(path -> {
                 try {
                     deleteFile(path);
+                    keys.remove(path.getFileName().toString());
                 } catch (IOException e) {
                     Jvm.warn().on(getClass(), "Unable to delete " + path + " " + e);
                 }
@@ -276,30 +459,24 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
     }
 
     private Stream<Path> getFiles() {
-        try {
-            return Files
-                    .walk(dirPath)
-                    .filter(p -> !Files.isDirectory(p))
-                    .filter(this::isVisible);
-
-        } catch (IOException e) {
-            throw Jvm.rethrow(e);
-        }
+        return keys.stream().map(dirPath::resolve);
     }
 
-    private boolean isVisible(@NotNull Path p) {
-        return !p.getFileName().startsWith(".");
+    private static boolean isVisible(@NotNull String fileName) {
+        return !fileName.startsWith(".");
     }
 
     @Nullable
     private BytesStore getFileContents(@NotNull Path path, Bytes using) {
-        File file = path.toFile();
-        FileRecord<BytesStore> lastFileRecord = lastFileRecordMap.get(file);
-        if (lastFileRecord != null && lastFileRecord.valid
-                && file.lastModified() == lastFileRecord.timestamp) {
-            @Nullable BytesStore contents = lastFileRecord.contents();
-            if (contents != null)
-                return contents;
+        @Nullable BytesStore pending = pending(path);
+        if (pending != null)
+            return pending;
+        @Nullable BytesStore cached = cache.contents(path.toFile());
+        if (cached != null) {
+            // each reader has its own read position, the Bytes takes over the reference
+            final Bytes bytes = cached.bytesForRead();
+            cached.release();
+            return bytes;
         }
         return getFileContentsFromDisk(path, using);
     }
@@ -323,7 +500,19 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
         Buffers b = Buffers.BUFFERS.get();
         Bytes<ByteBuffer> readingBytes = b.valueBuffer;
         try (FileChannel fc = new FileInputStream(file).getChannel()) {
-            readingBytes.ensureCapacity(fc.size());
+            final long size = fc.size();
+            if (size >= memoryMapMinSize) {
+                // large values are not copied, the mapping stays valid after the channel is closed
+                // and after the file is replaced, as a write renames a new file over it
+                final long address = OS.map(fc, FileChannel.MapMode.READ_ONLY, 0, size);
+                @NotNull final MappedContents contents = new MappedContents(address, size);
+                // the Bytes takes over the only reference to the mapping
+                final Bytes bytes = contents.bytesForRead();
+                contents.release();
+                return bytes;
+            }
+
+            readingBytes.ensureCapacity(size);
 
             @Nullable ByteBuffer dst = readingBytes.underlyingObject();
             dst.clear();
@@ -337,6 +526,21 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
         return readingBytes;
     }
 
+    /**
+     * @return the store to hold in the cache, reserved, values read into the thread's buffer are
+     * copied, a memory mapped value is read only, so it is shared rather than copied. The store is
+     * held rather than the {@code Bytes} read, so readers do not share a read position.
+     */
+    @NotNull
+    private static BytesStore cacheable(@NotNull BytesStore value) {
+        final BytesStore store = value.bytesStore();
+        if (store instanceof MappedContents) {
+            store.reserve();
+            return store;
+        }
+        return BytesStore.wrap(value.toByteArray());
+    }
+
     private void writeToFile(@NotNull Path path, @NotNull BytesStore value) {
         BytesStore<?, ByteBuffer> writingBytes;
         if (value.underlyingObject() instanceof ByteBuffer) {
@@ -388,8 +592,41 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
     @Override
     public void close() {
         closed = true;
+        // the values not yet written are not lost
+        flush();
+        if (writeBehindThread != null)
+            writeBehindThread.interrupt();
         fileFpmWatcher.interrupt();
         Closeable.closeQuietly(watcher);
+        cache.clear();
+    }
+
+    /**
+     * @return the number of reads served from the cache of file contents
+     */
+    public long cacheHits() {
+        return cache.hits();
+    }
+
+    /**
+     * @return the number of reads that had to read the file
+     */
+    public long cacheMisses() {
+        return cache.misses();
+    }
+
+    /**
+     * @return the number of file contents released to keep the cache within its size
+     */
+    public long cacheEvictions() {
+        return cache.evictions();
+    }
+
+    /**
+     * @return the total size of the file contents held by the cache
+     */
+    public long cacheBytes() {
+        return cache.bytes();
     }
 
     @NotNull
@@ -409,6 +646,36 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
         throw new UnsupportedOperationException("todo");
     }
 
+    /**
+     * the contents of a memory mapped file, unmapped as soon as the last reference is released.
+     * A {@code MappedByteBuffer} is only unmapped when it is garbage collected, which can be long
+     * after the file was replaced.
+     */
+    private static final class MappedContents extends NativeBytesStore<Void> {
+        MappedContents(long address, long size) {
+            super(address, size, new Unmapper(address, size), false);
+        }
+    }
+
+    private static final class Unmapper implements Runnable {
+        private final long address;
+        private final long size;
+
+        Unmapper(long address, long size) {
+            this.address = address;
+            this.size = size;
+        }
+
+        @Override
+        public void run() {
+            try {
+                OS.unmap(address, size);
+            } catch (IOException e) {
+                Jvm.warn().on(FilePerKeyValueStore.class, "Unable to unmap " + size + " bytes", e);
+            }
+        }
+    }
+
     private class FPMWatcher implements Runnable {
         private final WatchService watcher;
 
@@ -443,7 +710,8 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
                 Kind<?> kind = event.kind();
 
                 if (kind == StandardWatchEventKinds.OVERFLOW) {
-                    // todo log a warning.
+                    Jvm.warn().on(getClass(), "Events were lost for " + dirPath + ", re-reading the keys");
+                    scanKeys();
                     continue;
                 }
 
@@ -451,7 +719,7 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
                 @NotNull WatchEvent<Path> ev = (WatchEvent<Path>) event;
                 Path fileName = ev.context();
                 String mapKey = fileName.toString();
-                if (mapKey.startsWith(".")) {
+                if (!isVisible(mapKey)) {
                     //this avoids temporary files being added to the map
                     continue;
                 }
@@ -460,12 +728,15 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
                 if (kind == StandardWatchEventKinds.ENTRY_CREATE || kind == StandardWatchEventKinds.ENTRY_MODIFY) {
                     Path p = dirPath.resolve(fileName);
                     @Nullable BytesStore mapVal = getFileContentsFromDisk(p, null);
+                    if (mapVal != null)
+                        keys.add(mapKey);
 
-                    FileRecord<BytesStore> prev = lastFileRecordMap.get(p.toFile());
+                    FileRecord<BytesStore> prev = cache.get(p.toFile());
 //                    if (mapVal == null) {
 //                            System.out.println("Unable to read "+mapKey+", exists: "+p.toFile().exists());
 //                    }
                     @Nullable BytesStore prevContents = prev == null ? null : prev.contents();
+                    @Nullable final BytesStore read = mapVal;
                     try {
                         if (mapVal != null && mapVal.contentEquals(prevContents)) {
 //                            System.out.println("... key: "+mapKey+" equal, last.keys: "+new TreeSet<>(lastFileRecordMap.keySet()));
@@ -478,7 +749,7 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
                                 mapVal = prevContents;
                         } else {
 //                            System.out.println("adding "+mapKey);
-                            lastFileRecordMap.put(p.toFile(), new FileRecord<>(p.toFile().lastModified(), mapVal.copy()));
+                            cache.put(p.toFile(), p.toFile().lastModified(), cacheable(mapVal));
                         }
                         if (prev == null) {
                             subscriptions.notifyEvent(InsertedEvent.of(asset.fullName(), p.toFile().getName(), mapVal, false));
@@ -488,15 +759,20 @@ public class FilePerKeyValueStore implements StringBytesStoreKeyValueStore, Clos
                                     null || !prevContents.equals(mapVal)));
                         }
                     } finally {
+                        // the cache holds its own reference to what was read
+                        if (read != null)
+                            read.release();
                         if (prevContents != null)
                             prevContents.release();
                     }
 
                 } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
                     Path p = dirPath.resolve(fileName);
+                    // a value waiting to be written will recreate the file
+                    if (dirty == null || !dirty.containsKey(p))
+                        keys.remove(mapKey);
 
-                    FileRecord<BytesStore> prev = lastFileRecordMap.remove(p.toFile());
-                    @Nullable BytesStore lastVal = prev == null ? null : prev.contents();
+                    @Nullable BytesStore lastVal = cache.remove(p.toFile());
                     try {
                         subscriptions.notifyEvent(RemovedEvent.of(asset.fullName(), p.toFile().getName(), lastVal, false));
                     } finally {
@@ -43,4 +43,13 @@ class FileRecord<T> {
             }
         return contents;
     }
+
+    /**
+     * releases the record's reference to its contents, after which {@link #contents()} returns
+     * {@code null}, must be called at most once.
+     */
+    void release() {
+        if (contents instanceof ReferenceCounted)
+            ((ReferenceCounted) contents).release();
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import net.openhft.chronicle.engine.api.map.MapEvent;
+import net.openhft.chronicle.engine.api.map.MapEventListener;
+import net.openhft.chronicle.wire.WireIn;
+import net.openhft.chronicle.wire.WireOut;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A MapEvent of a raw event, which decodes the values of the raw event when they are first
+ * read, so no value is decoded for subscribers which only read the key. Each value is decoded at
+ * most once.
+ * <p>
+ * The raw values may be buffers which are reused once the event has been notified, so {@link
+ * #detach(boolean)} must be called after notification. The asset name and key are still available
+ * after that, but a value not read before is not.
+ */
+class LazyMapEvent<K, V, B> implements MapEvent<K, V> {
+    private static final Object NOT_DECODED = new Object();
+
+    @NotNull
+    private final Function<B, V> decoder;
+    private final String assetName;
+    @Nullable
+    private final K key;
+    private final boolean isReplicationEvent;
+    @Nullable
+    private MapEvent<K, B> raw;
+    // the event with its values decoded, once detached
+    @Nullable
+    private MapEvent<K, V> detached;
+    private Object value = NOT_DECODED;
+    private Object oldValue = NOT_DECODED;
+
+    LazyMapEvent(@NotNull MapEvent<K, B> raw, @NotNull Function<B, V> decoder) {
+        this.raw = raw;
+        this.decoder = decoder;
+        this.assetName = raw.assetName();
+        this.key = raw.getKey();
+        this.isReplicationEvent = raw.isReplicationEvent();
+    }
+
+    /**
+     * notifies the subscribers of a raw event, decoding its values only if a subscriber reads them.
+     *
+     * @param subscriptions to notify
+     * @param raw           the raw event
+     * @param decoder       decodes a raw value
+     */
+    static <K, V, B> void notifyEvent(@NotNull ObjectSubscription<K, V> subscriptions,
+                                      @NotNull MapEvent<K, B> raw,
+                                      @NotNull Function<B, V> decoder) {
+        if (!subscriptions.hasSubscribers())
+            return;
+
+        @NotNull final LazyMapEvent<K, V, B> event = new LazyMapEvent<>(raw, decoder);
+        try {
+            subscriptions.notifyEvent(event);
+        } finally {
+            // only value subscribers are given the event to keep
+            event.detach(subscriptions.hasValueSubscribers());
+        }
+    }
+
+    /**
+     * called once the event has been notified, after which the raw values may no longer be valid.
+     *
+     * @param retained whether a subscriber could have kept this event to read later, in which case
+     *                 the values not read yet are decoded now.
+     */
+    void detach(boolean retained) {
+        // values already read are kept without decoding them again
+        if (retained || (value != NOT_DECODED && oldValue != NOT_DECODED))
+            detached = decoded();
+        raw = null;
+    }
+
+    @NotNull
+    private MapEvent<K, ?> event() {
+        if (detached != null)
+            return detached;
+        if (raw == null)
+            throw new IllegalStateException("This event was detached before its values were read");
+        return raw;
+    }
+
+    @Nullable
+    private V decode(@Nullable B bytes) {
+        return bytes == null ? null : decoder.apply(bytes);
+    }
+
+    @Override
+    public String assetName() {
+        return assetName;
+    }
+
+    @Override
+    public boolean isReplicationEvent() {
+        return isReplicationEvent;
+    }
+
+    @Override
+    @Nullable
+    public K getKey() {
+        return key;
+    }
+
+    @Override
+    @Nullable
+    public V getValue() {
+        if (detached != null)
+            return detached.getValue();
+        if (value == NOT_DECODED)
+            value = decode(((MapEvent<K, B>) event()).getValue());
+        return (V) value;
+    }
+
+    @Override
+    @Nullable
+    public V oldValue() {
+        if (detached != null)
+            return detached.oldValue();
+        if (oldValue == NOT_DECODED)
+            oldValue = decode(((MapEvent<K, B>) event()).oldValue());
+        return (V) oldValue;
+    }
+
+    /**
+     * @return an eager event of the same type with the decoded values
+     */
+    @NotNull
+    private MapEvent<K, V> decoded() {
+        if (detached != null)
+            return detached;
+        @NotNull final MapEvent<K, B> raw = (MapEvent<K, B>) event();
+        // reuses the values already decoded
+        return raw.translate(k -> k, (Function<B, V>) b ->
+                b == raw.getValue() ? getValue() : b == raw.oldValue() ? oldValue() : decode(b));
+    }
+
+    @Override
+    public void apply(@NotNull MapEventListener<K, V> listener) {
+        decoded().apply(listener);
+    }
+
+    @NotNull
+    @Override
+    public <K2, V2> MapEvent<K2, V2> translate(@NotNull Function<K, K2> keyFunction, @NotNull Function<V, V2> valueFunction) {
+        return decoded().translate(keyFunction, valueFunction);
+    }
+
+    @NotNull
+    @Override
+    public <K2, V2> MapEvent<K2, V2> translate(@NotNull BiFunction<K, K2, K2> keyFunction, @NotNull BiFunction<V, V2, V2> valueFunction) {
+        return decoded().translate(keyFunction, valueFunction);
+    }
+
+    /**
+     * @return the event with its values decoded, or {@code null} if it was detached before they
+     * were read
+     */
+    @Nullable
+    private MapEvent<K, V> decodedIfAvailable() {
+        return detached == null && raw == null ? null : decoded();
+    }
+
+    @Override
+    public void readMarshallable(@NotNull WireIn wire) throws IllegalStateException {
+        // written as the decoded event, so it is read as that
+        throw new UnsupportedOperationException("A LazyMapEvent is read as the event it decodes to");
+    }
+
+    @Override
+    public void writeMarshallable(@NotNull WireOut wire) {
+        decoded().writeMarshallable(wire);
+    }
+
+    /**
+     * equal to another lazy event which decodes to an equal event, once detached without its values
+     * being read it is only equal to itself.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof LazyMapEvent))
+            return false;
+        @Nullable final MapEvent<K, V> decoded = decodedIfAvailable();
+        @Nullable final MapEvent other = ((LazyMapEvent) o).decodedIfAvailable();
+        return decoded != null && other != null && decoded.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        // does not change once detached
+        return Objects.hash(assetName, key);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        @Nullable final MapEvent<K, V> decoded = decodedIfAvailable();
+        return decoded != null
+                ? decoded.toString()
+                : "LazyMapEvent{assetName='" + assetName + "', key=" + key + ", detached before its values were read}";
+    }
+}
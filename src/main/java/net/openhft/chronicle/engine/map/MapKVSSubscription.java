@@ -23,6 +23,8 @@ import net.openhft.chronicle.engine.api.map.KeyValueStore.Entry;
 import net.openhft.chronicle.engine.api.map.MapEvent;
 import net.openhft.chronicle.engine.api.map.MapView;
 import net.openhft.chronicle.engine.api.pubsub.*;
+import net.openhft.chronicle.engine.api.pubsub.SharedMessage.SharingSubscriber;
+import net.openhft.chronicle.engine.api.pubsub.SharedMessage.SharingTopicSubscriber;
 import net.openhft.chronicle.engine.api.tree.Asset;
 import net.openhft.chronicle.engine.api.tree.RequestContext;
 import net.openhft.chronicle.engine.cfg.SubscriptionStat;
@@ -154,12 +156,29 @@ public class MapKVSSubscription<K, V> implements ObjectSubscription<K, V>,
     private void notifyEvent1(@NotNull MapEvent<K, V> changeEvent) {
         K key = changeEvent.getKey();
 
+        // the remote subscribers share one marshalled copy of the message, for this event only
         if (!topicSubscribers.isEmpty()) {
             V value = changeEvent.getValue();
-            notifyEachSubscriber(topicSubscribers, ts -> ts.onMessage(key, value));
+            @Nullable final SharedMessage sharedMessage = isShared(topicSubscribers, SharingTopicSubscriber.class)
+                    ? SharedMessage.of(key, value)
+                    : null;
+            notifyEachSubscriber(topicSubscribers, ts -> {
+                if (sharedMessage != null && ts instanceof SharingTopicSubscriber)
+                    ((SharingTopicSubscriber<K, V>) ts).onMessage(key, value, sharedMessage);
+                else
+                    ts.onMessage(key, value);
+            });
         }
         if (!subscribers.isEmpty()) {
-            notifyEachSubscriber(subscribers, s -> s.onMessage(changeEvent));
+            @Nullable final SharedMessage sharedMessage = isShared(subscribers, SharingSubscriber.class)
+                    ? SharedMessage.of(changeEvent)
+                    : null;
+            notifyEachSubscriber(subscribers, s -> {
+                if (sharedMessage != null && s instanceof SharingSubscriber)
+                    ((SharingSubscriber<MapEvent<K, V>>) s).onMessage(changeEvent, sharedMessage);
+                else
+                    s.onMessage(changeEvent);
+            });
         }
         if (!keySubscribers.isEmpty()) {
             notifyEachSubscriber(keySubscribers, s -> s.onMessage(key));
@@ -169,6 +188,18 @@ public class MapKVSSubscription<K, V> implements ObjectSubscription<K, V>,
         }
     }
 
+    /**
+     * @return {@code true} if more than one of the {@code subscribers} can share a message
+     */
+    private static boolean isShared(@NotNull Set<?> subscribers, @NotNull Class<?> sharingType) {
+        int sharing = 0;
+        for (Object subscriber : subscribers) {
+            if (sharingType.isInstance(subscriber) && ++sharing > 1)
+                return true;
+        }
+        return false;
+    }
+
     private void notifyEventToChild(@NotNull MapEvent<K, V> changeEvent) {
         K key = changeEvent.getKey();
         if (asset == null || !asset.hasChildren()) {
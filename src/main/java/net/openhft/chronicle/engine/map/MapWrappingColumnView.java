@@ -1,12 +1,16 @@
 package net.openhft.chronicle.engine.map;
 
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.util.ObjectUtils;
 import net.openhft.chronicle.engine.api.column.ClosableIterator;
 import net.openhft.chronicle.engine.api.column.Column;
 import net.openhft.chronicle.engine.api.column.MapColumnView;
 import net.openhft.chronicle.engine.api.column.Row;
+import net.openhft.chronicle.engine.api.map.MapEvent;
 import net.openhft.chronicle.engine.api.map.MapView;
+import net.openhft.chronicle.engine.api.pubsub.Subscriber;
+import net.openhft.chronicle.engine.api.pubsub.SubscriptionCollection;
 import net.openhft.chronicle.engine.api.tree.Asset;
 import net.openhft.chronicle.engine.api.tree.RequestContext;
 import net.openhft.chronicle.wire.FieldInfo;
@@ -16,6 +20,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.function.Predicate;
 
 import static net.openhft.chronicle.core.util.ObjectUtils.convertTo;
@@ -23,7 +28,10 @@ import static net.openhft.chronicle.core.util.ObjectUtils.convertTo;
 /**
  * @author Rob Austin.
  */
-public class MapWrappingColumnView<K, V> implements MapColumnView {
+public class MapWrappingColumnView<K, V> implements MapColumnView, Closeable {
+
+    // the number of order bys, and of filters, whose sorted rows are kept
+    private static final int MAX_INDEXES = Integer.getInteger("columnView.maxIndexes", 8);
 
     private final RequestContext requestContext;
     private final Asset asset;
@@ -34,6 +42,17 @@ public class MapWrappingColumnView<K, V> implements MapColumnView {
     @Nullable
     private ArrayList<String> columnNames = null;
 
+    // the entries of the map, kept up to date by a subscription once the first page is read,
+    // they are only read once the subscription has bootstrapped all the entries.
+    private final CountDownLatch bootstrapped = new CountDownLatch(1);
+    private final Subscriber<MapEvent<K, V>> subscriber = this::onEvent;
+    private boolean subscribed;
+    private Map<K, Map.Entry<K, V>> entries;
+    // the entries sorted by each order by recently used
+    private Map<List<MarshableOrderBy>, SortedEntryIndex<K, V>> indexes;
+    // the sorted entries matching each filter recently used
+    private Map<List<Object>, SortedEntryIndex<K, V>> filtered;
+
     public MapWrappingColumnView(RequestContext requestContext,
                                  Asset asset,
                                  @NotNull MapView<K, V> mapView) {
@@ -71,8 +90,8 @@ public class MapWrappingColumnView<K, V> implements MapColumnView {
                     c2 = o2.getKey();
 
                 } else if (valueMap) {
-                    c1 = ((Map) o1).get(column);
-                    c2 = ((Map) o2).get(column);
+                    c1 = ((Map) o1.getValue()).get(column);
+                    c2 = ((Map) o2.getValue()).get(column);
 
                 } else if (valueMarshallable) {
                     try {
@@ -96,7 +115,9 @@ public class MapWrappingColumnView<K, V> implements MapColumnView {
                     continue;
                 }
 
-                if (c1.getClass() == c2.getClass() && c1 instanceof Comparable && !(c1 instanceof CharSequence)) {
+                if (c1 == null || c2 == null) {
+                    result = c1 == c2 ? 0 : c1 == null ? -1 : 1;
+                } else if (c1.getClass() == c2.getClass() && c1 instanceof Comparable && !(c1 instanceof CharSequence)) {
                     result = ((Comparable) c1).compareTo(c2);
                 } else {
                     result = String.CASE_INSENSITIVE_ORDER.compare(c1.toString(), c2.toString());
@@ -106,20 +127,157 @@ public class MapWrappingColumnView<K, V> implements MapColumnView {
                     return order.isAscending ? -result : result;
             }
 
-            return 0;
+            // a total order, so the entry can be found in a sorted index
+            return compareKeys(o1.getKey(), o2.getKey());
         };
     }
 
+    private static int compareKeys(Object k1, Object k2) {
+        if (k1.getClass() == k2.getClass() && k1 instanceof Comparable)
+            return ((Comparable) k1).compareTo(k2);
+        final int result = k1.toString().compareTo(k2.toString());
+        return result != 0 ? result : k1.getClass().getName().compareTo(k2.getClass().getName());
+    }
+
+    /**
+     * @return the entries matching {@code sortedFilter} in order, which must only be read while
+     * holding the lock on this
+     */
+    @NotNull
+    private SortedEntryIndex<K, V> sortedRows(@NotNull final SortedFilter sortedFilter) {
+        assert Thread.holdsLock(this);
+        final List<MarshableOrderBy> orderBy = new ArrayList<>(sortedFilter.marshableOrderBy);
+
+        if (sortedFilter.marshableFilters.isEmpty()) {
+            SortedEntryIndex<K, V> index = indexes.get(orderBy);
+            if (index == null) {
+                index = new SortedEntryIndex<>(sort(orderBy), null, entries.values());
+                indexes.put(orderBy, index);
+            }
+            return index;
+        }
+
+        final List<MarshableFilter> filters = new ArrayList<>(sortedFilter.marshableFilters);
+        final List<Object> key = Arrays.asList(orderBy, filters);
+        SortedEntryIndex<K, V> rows = filtered.get(key);
+        if (rows == null) {
+            rows = new SortedEntryIndex<>(sort(orderBy), filter(filters), entries.values());
+            filtered.put(key, rows);
+        }
+        return rows;
+    }
+
+    private void subscribe() {
+        if (bootstrapped.getCount() == 0)
+            return;
+        final boolean first;
+        synchronized (this) {
+            first = !subscribed;
+            if (first) {
+                entries = new HashMap<>();
+                indexes = lruMap();
+                filtered = lruMap();
+                subscribed = true;
+            }
+        }
+        if (first) {
+            // bootstraps the existing entries, without holding the lock, as the events may be
+            // published by a thread holding a lock of the store.
+            try {
+                mapView.registerSubscriber(subscriber);
+            } finally {
+                bootstrapped.countDown();
+            }
+            return;
+        }
+
+        // other callers wait for the bootstrap, rather than read a partial map
+        boolean interrupted = false;
+        while (bootstrapped.getCount() > 0) {
+            try {
+                bootstrapped.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    @NotNull
+    private static <T, U> Map<T, U> lruMap() {
+        return new LinkedHashMap<T, U>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<T, U> eldest) {
+                return size() > MAX_INDEXES;
+            }
+        };
+    }
+
+    private synchronized void onEvent(@NotNull MapEvent<K, V> event) {
+        if (entries == null)
+            // closed
+            return;
+        final K key = event.getKey();
+        final V value = event.getValue();
+
+        @Nullable final Map.Entry<K, V> entry = value == null
+                ? null
+                : new AbstractMap.SimpleImmutableEntry<>(key, value);
+        @Nullable final Map.Entry<K, V> old = entry == null
+                ? entries.remove(key)
+                : entries.put(key, entry);
+
+        // each index is updated for this key only
+        update(indexes.values(), old, entry);
+        update(filtered.values(), old, entry);
+    }
+
+    private static <K, V> void update(@NotNull Collection<SortedEntryIndex<K, V>> indexes,
+                                      @Nullable Map.Entry<K, V> old,
+                                      @Nullable Map.Entry<K, V> entry) {
+        for (@NotNull SortedEntryIndex<K, V> index : indexes) {
+            if (old != null)
+                index.remove(old);
+            if (entry != null)
+                index.add(entry);
+        }
+    }
+
+    /**
+     * stops keeping the entries of the map, a page read after this is empty
+     */
+    @Override
+    public void close() {
+        final boolean unregister;
+        synchronized (this) {
+            unregister = subscribed && entries != null;
+            subscribed = true;
+            entries = null;
+            indexes = null;
+            filtered = null;
+        }
+        bootstrapped.countDown();
+        if (!unregister)
+            return;
+        @Nullable final SubscriptionCollection subscription = mapView.asset().subscription(false);
+        if (subscription != null)
+            subscription.unregisterSubscriber(subscriber);
+    }
+
     @NotNull
     @Override
     public ClosableIterator<Row> iterator(@NotNull final SortedFilter sortedFilter) {
 
-        final Iterator<Map.Entry<K, V>> core = mapView.entrySet().stream()
-                .filter(filter(sortedFilter.marshableFilters))
-                .sorted(sort(sortedFilter.marshableOrderBy))
-                .iterator();
+        subscribe();
+        @Nullable final SortedEntryIndex<K, V> rows;
+        synchronized (this) {
+            rows = entries == null ? null : sortedRows(sortedFilter);
+        }
 
         @NotNull final ClosableIterator<Row> result = new ClosableIterator<Row>() {
+            // the rows are read by position, as an index may change between pages
+            long position = Math.max(0, sortedFilter.fromIndex);
 
             @Override
             public void close() {
@@ -128,13 +286,20 @@ public class MapWrappingColumnView<K, V> implements MapColumnView {
 
             @Override
             public boolean hasNext() {
-                return core.hasNext();
+                synchronized (MapWrappingColumnView.this) {
+                    return rows != null && position < rows.size();
+                }
             }
 
             @NotNull
             @Override
             public Row next() {
-                final Map.Entry e = core.next();
+                final Map.Entry e;
+                synchronized (MapWrappingColumnView.this) {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    e = rows.get((int) position++);
+                }
                 @NotNull final Row row = new Row(columns());
                 addColumns(row, mapView.keyType(), "key", e.getKey());
                 addColumns(row, mapView.valueType(), "value", e.getValue());
@@ -167,11 +332,6 @@ public class MapWrappingColumnView<K, V> implements MapColumnView {
             }
         };
 
-        long x = 0;
-        while (x++ < sortedFilter.fromIndex && result.hasNext()) {
-            result.next();
-        }
-
         return result;
     }
 
@@ -377,9 +537,11 @@ public class MapWrappingColumnView<K, V> implements MapColumnView {
         if (sortedFilter == null || sortedFilter.marshableFilters.isEmpty())
             return (int) mapView.longSize();
 
-        return (int) mapView.entrySet().stream()
-                .filter(filter(sortedFilter.marshableFilters))
-                .count();
+        // shares the rows matching the filter with the pages of the same query
+        subscribe();
+        synchronized (this) {
+            return entries == null ? 0 : sortedRows(sortedFilter).size();
+        }
     }
 
 }
\ No newline at end of file
@@ -19,13 +19,11 @@ package net.openhft.chronicle.engine.map;
 
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.threads.EventLoop;
-import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
 import net.openhft.chronicle.core.util.ObjectUtils;
 import net.openhft.chronicle.engine.api.map.KeyValueStore;
 import net.openhft.chronicle.engine.api.map.MapEvent;
 import net.openhft.chronicle.engine.api.map.MapView;
 import net.openhft.chronicle.engine.api.pubsub.ISubscriber;
-import net.openhft.chronicle.engine.api.pubsub.InvalidSubscriberException;
 import net.openhft.chronicle.engine.api.pubsub.Subscriber;
 import net.openhft.chronicle.engine.api.pubsub.TopicSubscriber;
 import net.openhft.chronicle.engine.api.tree.Asset;
@@ -48,7 +46,6 @@ import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /*
  * Created by Peter Lawrey on 22/05/15.
@@ -172,42 +169,12 @@ public class QueueObjectSubscription<T, M> implements ObjectSubscription<T, M> {
         addToStats("topicSubscription");
 
         topicSubscribers.add(subscriber);
-        @NotNull AtomicBoolean terminate = new AtomicBoolean();
 
         @NotNull final ChronicleQueueView<T, M> chronicleQueue = (ChronicleQueueView) asset.acquireView
                 (QueueView.class, rc);
 
-        QueueView.Tailer<T, M> iterator = chronicleQueue.tailer();
-        eventLoop.addHandler(() -> {
-
-            // this will be set to true if onMessage throws InvalidSubscriberException
-            if (terminate.get())
-                throw new InvalidEventHandlerException();
-
-            boolean busy = false;
-            long start = System.nanoTime();
-            do {
-                @Nullable final QueueView.Excerpt<T, M> next = iterator.read();
-                if (next == null)
-                    return busy;
-                try {
-                    M message = next.message();
-                    T topic = next.topic();
-                    subscriber.onMessage(topic, message);
-
-                } catch (InvalidSubscriberException e) {
-                    topicSubscribers.add(subscriber);
-                    terminate.set(true);
-
-                } catch (RuntimeException e) {
-                    Jvm.warn().on(getClass(), e);
-                    terminate.set(true);
-                }
-                busy = true;
-            } while (System.nanoTime() - start < 5000);
-            return busy;
-        });
-
+        // the queue is read once for all the topic subscribers
+        chronicleQueue.demultiplexer().registerSubscriber(subscriber, null, subscriber);
     }
 
     @NotNull
@@ -255,6 +222,9 @@ public class QueueObjectSubscription<T, M> implements ObjectSubscription<T, M> {
     @Override
     public void unregisterTopicSubscriber(@NotNull TopicSubscriber subscriber) {
         topicSubscribers.remove(subscriber);
+        @Nullable final ChronicleQueueView<T, M> chronicleQueue = (ChronicleQueueView) asset.getView(QueueView.class);
+        if (chronicleQueue != null)
+            chronicleQueue.demultiplexer().unregisterSubscriber(subscriber, null);
         removeFromStats("topicSubscription");
         subscriber.onEndOfSubscription();
     }
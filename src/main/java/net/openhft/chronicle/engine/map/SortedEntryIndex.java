@@ -0,0 +1,218 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * The entries of a map, sorted by the order by of a column view query, and optionally only those
+ * matching its filters. It is updated as the map changes, so a page of rows can be read from its
+ * first row, rather than sorting the whole map for each page. The entries are held in a treap
+ * which counts the entries below each node, so an entry can be added, removed or read by its
+ * position in O(log n). Not thread safe, the {@link MapWrappingColumnView} using it holds the
+ * lock.
+ */
+class SortedEntryIndex<K, V> {
+
+    @NotNull
+    private final Comparator<Map.Entry<K, V>> comparator;
+    @Nullable
+    private final Predicate<Map.Entry<K, V>> filter;
+    @NotNull
+    private final Random random = new Random();
+    @Nullable
+    private Node<K, V> root;
+    private boolean removed;
+
+    /**
+     * @param comparator a total order of the entries, no two entries of the map may compare equal
+     * @param filter     the entries to index, or null for all of them
+     * @param entries    the entries of the map
+     */
+    SortedEntryIndex(@NotNull Comparator<Map.Entry<K, V>> comparator,
+                     @Nullable Predicate<Map.Entry<K, V>> filter,
+                     @NotNull Collection<Map.Entry<K, V>> entries) {
+        this.comparator = comparator;
+        this.filter = filter;
+        for (Map.Entry<K, V> entry : entries)
+            add(entry);
+    }
+
+    private static int size(@Nullable Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    void add(@NotNull Map.Entry<K, V> entry) {
+        if (filter == null || filter.test(entry))
+            root = insert(root, new Node<>(entry, random.nextInt()));
+    }
+
+    void remove(@NotNull Map.Entry<K, V> entry) {
+        if (filter != null && !filter.test(entry))
+            return;
+        removed = false;
+        root = remove(root, entry);
+        if (!removed)
+            // only if the comparator is inconsistent, e.g. the value was changed in place
+            removeByIdentity(entry);
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * @param index the position of the entry in the order of this index
+     * @return the entry
+     */
+    @NotNull
+    Map.Entry<K, V> get(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+        Node<K, V> node = root;
+        for (; ; ) {
+            final int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.entry;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    @NotNull
+    private Node<K, V> insert(@Nullable Node<K, V> node, @NotNull Node<K, V> added) {
+        if (node == null)
+            return added;
+        if (comparator.compare(added.entry, node.entry) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority)
+                node = rotateRight(node);
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority)
+                node = rotateLeft(node);
+        }
+        node.update();
+        return node;
+    }
+
+    @Nullable
+    private Node<K, V> remove(@Nullable Node<K, V> node, @NotNull Map.Entry<K, V> entry) {
+        if (node == null)
+            return null;
+        final int result = comparator.compare(entry, node.entry);
+        if (result < 0) {
+            node.left = remove(node.left, entry);
+        } else if (result > 0) {
+            node.right = remove(node.right, entry);
+        } else if (node.entry == entry) {
+            removed = true;
+            return merge(node.left, node.right);
+        } else {
+            return node;
+        }
+        node.update();
+        return node;
+    }
+
+    @Nullable
+    private static <K, V> Node<K, V> merge(@Nullable Node<K, V> left, @Nullable Node<K, V> right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    @NotNull
+    private static <K, V> Node<K, V> rotateRight(@NotNull Node<K, V> node) {
+        final Node<K, V> left = node.left;
+        node.left = left.right;
+        node.update();
+        left.right = node;
+        return left;
+    }
+
+    @NotNull
+    private static <K, V> Node<K, V> rotateLeft(@NotNull Node<K, V> node) {
+        final Node<K, V> right = node.right;
+        node.right = right.left;
+        node.update();
+        right.left = node;
+        return right;
+    }
+
+    private void removeByIdentity(@NotNull Map.Entry<K, V> entry) {
+        final List<Map.Entry<K, V>> entries = new ArrayList<>(size());
+        addTo(root, entries);
+        if (!entries.removeIf(e -> e == entry))
+            return;
+        root = null;
+        for (Map.Entry<K, V> e : entries)
+            root = insert(root, new Node<>(e, random.nextInt()));
+    }
+
+    private static <K, V> void addTo(@Nullable Node<K, V> node,
+                                     @NotNull List<Map.Entry<K, V>> entries) {
+        if (node == null)
+            return;
+        addTo(node.left, entries);
+        entries.add(node.entry);
+        addTo(node.right, entries);
+    }
+
+    private static final class Node<K, V> {
+        @NotNull
+        final Map.Entry<K, V> entry;
+        final int priority;
+        int size = 1;
+        @Nullable
+        Node<K, V> left;
+        @Nullable
+        Node<K, V> right;
+
+        Node(@NotNull Map.Entry<K, V> entry, int priority) {
+            this.entry = entry;
+            this.priority = priority;
+        }
+
+        void update() {
+            size = 1 + SortedEntryIndex.size(left) + SortedEntryIndex.size(right);
+        }
+    }
+}
@@ -31,6 +31,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
 
 /*
  * Created by Peter Lawrey on 22/05/15.
@@ -81,6 +82,27 @@ public class VanillaKeyValueStore<K, V> implements AuthenticatedKeyValueStore<K,
         return oldValue;
     }
 
+    @Override
+    public boolean replaceIfEqual(K key, V oldValue, V newValue) {
+        return map.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public boolean removeIfEqual(K key, V value) {
+        return map.remove(key, value);
+    }
+
+    @Nullable
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return map.putIfAbsent(key, value);
+    }
+
+    @Override
+    public V compute(K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return map.compute(key, remappingFunction);
+    }
+
     @Override
     public V getUsing(K key, Object value) {
         return map.get(key);
@@ -18,6 +18,8 @@
 package net.openhft.chronicle.engine.map;
 
 import net.openhft.chronicle.bytes.BytesUtil;
+import net.openhft.chronicle.core.util.SerializableBiFunction;
+import net.openhft.chronicle.core.util.SerializableFunction;
 import net.openhft.chronicle.engine.api.map.KeyValueStore;
 import net.openhft.chronicle.engine.api.map.MapEvent;
 import net.openhft.chronicle.engine.api.map.MapView;
@@ -35,6 +37,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import static java.util.EnumSet.of;
 import static net.openhft.chronicle.engine.api.tree.RequestContext.Operation.BOOTSTRAP;
@@ -237,8 +242,23 @@ public class VanillaMapView<K, V> implements MapView<K, V> {
     @Override
     public void putAll(@net.openhft.chronicle.core.annotation.NotNull Map<? extends K, ? extends V> m) {
         for (@NotNull Entry<? extends K, ? extends V> entry : m.entrySet()) {
-            put(entry.getKey(), entry.getValue());
+            checkKey(entry.getKey());
+            checkValue(entry.getValue());
         }
+        kvStore.putAll(m);
+    }
+
+    @NotNull
+    @Override
+    public Map<K, V> getAll(@NotNull Collection<? extends K> keys) {
+        keys.forEach(this::checkKey);
+        return kvStore.getAll(keys);
+    }
+
+    @Override
+    public void removeAll(@NotNull Collection<? extends K> keys) {
+        keys.forEach(this::checkKey);
+        kvStore.removeAll(keys);
     }
 
     @Override
@@ -258,6 +278,50 @@ public class VanillaMapView<K, V> implements MapView<K, V> {
         return kvStore.getAndRemove(key);
     }
 
+    @NotNull
+    @Override
+    public CompletableFuture<V> getAsync(@NotNull K key) {
+        checkKey(key);
+        return kvStore.getAsync(key);
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Boolean> containsKeyAsync(@NotNull K key) {
+        checkKey(key);
+        return kvStore.containsKeyAsync(key);
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Void> putAsync(@NotNull K key, @NotNull V value) {
+        checkKey(key);
+        checkValue(value);
+        return kvStore.putAsync(key, value);
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<V> getAndPutAsync(@NotNull K key, @NotNull V value) {
+        checkKey(key);
+        checkValue(value);
+        return kvStore.getAndPutAsync(key, value);
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Void> removeAsync(@NotNull K key) {
+        checkKey(key);
+        return kvStore.removeAsync(key);
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<V> getAndRemoveAsync(@NotNull K key) {
+        checkKey(key);
+        return kvStore.getAndRemoveAsync(key);
+    }
+
     @NotNull
     @Override
     public EntrySetView<K, Object, V> entrySet() {
@@ -304,6 +368,74 @@ public class VanillaMapView<K, V> implements MapView<K, V> {
         return kvStore.replace(key, value);
     }
 
+    // the functions below update a key atomically in the store, rather than get, apply then set.
+    @Nullable
+    @Override
+    public V compute(@net.openhft.chronicle.core.annotation.NotNull K key,
+                     @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkKey(key);
+        return kvStore.compute(key, remappingFunction);
+    }
+
+    @Nullable
+    @Override
+    public V computeIfAbsent(@net.openhft.chronicle.core.annotation.NotNull K key,
+                             @NotNull Function<? super K, ? extends V> mappingFunction) {
+        checkKey(key);
+        @Nullable V value = kvStore.get(key);
+        if (value != null)
+            return value;
+        return kvStore.compute(key, (k, v) -> v == null ? mappingFunction.apply(k) : v);
+    }
+
+    @Nullable
+    @Override
+    public V computeIfPresent(@net.openhft.chronicle.core.annotation.NotNull K key,
+                              @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkKey(key);
+        if (!kvStore.containsKey(key))
+            return null;
+        return kvStore.compute(key, (k, v) -> v == null ? null : remappingFunction.apply(k, v));
+    }
+
+    @Nullable
+    @Override
+    public V merge(@net.openhft.chronicle.core.annotation.NotNull K key,
+                   @net.openhft.chronicle.core.annotation.NotNull V value,
+                   @NotNull BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        checkKey(key);
+        checkValue(value);
+        return kvStore.compute(key, (k, v) -> v == null ? value : remappingFunction.apply(v, value));
+    }
+
+    @Override
+    public void asyncUpdateKey(K key, @NotNull SerializableFunction<V, V> updateFunction) {
+        checkKey(key);
+        kvStore.compute(key, (k, v) -> updateFunction.apply(v));
+    }
+
+    @Override
+    public <R> R syncUpdateKey(K key, @NotNull SerializableFunction<V, V> updateFunction,
+                               @NotNull SerializableFunction<V, R> returnFunction) {
+        checkKey(key);
+        return returnFunction.apply(kvStore.compute(key, (k, v) -> updateFunction.apply(v)));
+    }
+
+    @Override
+    public <T> void asyncUpdateKey(K key, @NotNull SerializableBiFunction<V, T, V> updateFunction, T argument) {
+        checkKey(key);
+        kvStore.compute(key, (k, v) -> updateFunction.apply(v, argument));
+    }
+
+    @Override
+    public <T, RT, R> R syncUpdateKey(K key, @NotNull SerializableBiFunction<V, T, V> updateFunction,
+                                      @Nullable T updateArgument,
+                                      @NotNull SerializableBiFunction<V, RT, R> returnFunction,
+                                      @Nullable RT returnArgument) {
+        checkKey(key);
+        return returnFunction.apply(kvStore.compute(key, (k, v) -> updateFunction.apply(v, updateArgument)), returnArgument);
+    }
+
     @Override
     public void registerTopicSubscriber(@NotNull TopicSubscriber<K, V> topicSubscriber) {
         @NotNull KVSSubscription<K, V> subscription = (KVSSubscription<K, V>) asset.subscription(true);
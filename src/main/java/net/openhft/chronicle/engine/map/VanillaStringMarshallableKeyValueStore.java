@@ -81,7 +81,7 @@ public class VanillaStringMarshallableKeyValueStore<V extends Marshallable> impl
                 (RawKVSSubscription<String, BytesStore>) kvStore.subscription(true);
         this.subscriptions = subscriptions;
         rawSubscription.registerDownstream(mpe ->
-                subscriptions.notifyEvent(mpe.translate(s -> s, b -> bytesToValue.apply(b, null))));
+                LazyMapEvent.notifyEvent(subscriptions, mpe, b -> bytesToValue.apply(b, null)));
     }
 
     static <T> BiFunction<T, Bytes, Bytes> toBytes(@NotNull Class type, @NotNull Function<Bytes, Wire> wireType) {
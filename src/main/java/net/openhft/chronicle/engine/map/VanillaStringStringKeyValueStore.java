@@ -66,7 +66,7 @@ public class VanillaStringStringKeyValueStore implements StringStringKeyValueSto
         this.subscriptions = subscriptions;
         subscriptions.setKvStore(this);
         rawSubscription.registerDownstream(mpe ->
-                subscriptions.notifyEvent(mpe.translate(s -> s, BytesStoreToString.BYTES_STORE_TO_STRING)));
+                LazyMapEvent.notifyEvent(subscriptions, mpe, BytesStoreToString.BYTES_STORE_TO_STRING));
     }
 
     @NotNull
@@ -23,6 +23,8 @@ import net.openhft.chronicle.engine.api.tree.RequestContext;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.BiFunction;
+
 /*
  * Created by Peter Lawrey on 22/05/15.
  */
@@ -109,6 +111,29 @@ public class VanillaSubscriptionKeyValueStore<K, MV, V> extends AbstractKeyValue
         return ret;
     }
 
+    @Nullable
+    @Override
+    public V compute(@NotNull K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        // the function can be retried, so only the old value of the last attempt is kept.
+        @NotNull final Object[] oldValue = {null};
+        @Nullable V newValue = kvStore.compute(key, (k, v) -> {
+            oldValue[0] = v;
+            return remappingFunction.apply(k, v);
+        });
+
+        @Nullable final V old = (V) oldValue[0];
+        if (old == null) {
+            if (newValue != null)
+                subscriptions.notifyEvent(InsertedEvent.of(asset.fullName(), key, newValue, false));
+        } else if (newValue == null) {
+            subscriptions.notifyEvent(RemovedEvent.of(asset.fullName(), key, old, false));
+        } else {
+            subscriptions.notifyEvent(UpdatedEvent.of(asset.fullName(), key, old, newValue,
+                    false, !newValue.equals(old)));
+        }
+        return newValue;
+    }
+
     @Nullable
     @Override
     public V getAndPut(@NotNull K key, V value) {
@@ -102,12 +102,20 @@ abstract class AbstractRemoteSubscription<E> extends AbstractStatelessClient imp
 
             @Override
             public void onSubscribe(@NotNull final WireOut wireOut) {
+                if (subscriber instanceof ConnectionAwareSubscriber)
+                    ((ConnectionAwareSubscriber) subscriber).onSubscribe();
                 wireOut.writeEventName(registerSubscriber).
                         typeLiteral(CLASS_ALIASES.nameFor(rc.elementType()));
                 if (!filter.isEmpty())
                     wireOut.writeEventName(() -> "filter").object(filter);
             }
 
+            @Override
+            public void onClose() {
+                if (subscriber instanceof ConnectionAwareSubscriber)
+                    ((ConnectionAwareSubscriber) subscriber).onConnectionLost();
+            }
+
             @Override
             public void onConsumer(@NotNull final WireIn inWire) {
                 inWire.readDocument(null, d -> {
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map.remote;
+
+import net.openhft.chronicle.engine.api.pubsub.Subscriber;
+
+/**
+ * a subscriber which needs to know when it may have missed events, as a remote subscription is
+ * only registered on the server while the client is connected.
+ */
+interface ConnectionAwareSubscriber<E> extends Subscriber<E> {
+
+    /**
+     * called as the registration is sent, on connecting and again on each reconnect. A request
+     * sent after this is handled by the server after the registration.
+     */
+    void onSubscribe();
+
+    /**
+     * called when the connection is lost, events are missed until {@link #onSubscribe()}.
+     */
+    void onConnectionLost();
+}
@@ -24,6 +24,8 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Map;
 import java.util.function.BiFunction;
 
+import static net.openhft.chronicle.core.util.ObjectUtils.convertTo;
+
 /*
  * Created by Peter Lawrey on 07/07/15.
  */
@@ -40,5 +42,13 @@ public enum MapUpdate implements SerializableUpdaterWithArg<MapView, Object> {
             @NotNull BiFunction function = (BiFunction) o;
             map.replaceAll(function);
         }
+    },
+    COMPUTE {
+        @Override
+        public void accept(@NotNull MapView map, Object o) {
+            Class kClass = map.keyType();
+            @NotNull KeyFunctionPair kf = (KeyFunctionPair) o;
+            map.compute(convertTo(kClass, kf.key), (BiFunction) kf.function);
+        }
     }
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map.remote;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.bytes.NativeBytesStore;
+import net.openhft.chronicle.engine.api.map.MapEvent;
+import net.openhft.chronicle.engine.api.pubsub.Subscriber;
+import net.openhft.chronicle.wire.WireType;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * a bounded cache, on the client, of the entries of a remote map read recently, so reading a
+ * cached key does not go to the server. It is kept coherent by subscribing to the events of the
+ * map, an event for a cached key replaces or removes its value, and the least recently used entry
+ * is evicted when the cache is full.
+ * <p>
+ * Immutable values are held as is, other values are held marshalled, so a caller changing the
+ * value returned can't change the cached copy, values of at least {@code
+ * nearCache.offHeapMinSize} bytes are held off heap.
+ * <p>
+ * Nothing is cached until the subscription has been sent, and only values read by requests sent
+ * after it, which the server handles after registering the subscription, so no event of a cached
+ * entry is missed. The cache is cleared when the connection is lost, and again on reconnecting.
+ */
+class NearCache<K, V> implements ConnectionAwareSubscriber<MapEvent<K, V>> {
+
+    private static final int OFF_HEAP_MIN_SIZE = Integer.getInteger("nearCache.offHeapMinSize", 1 << 10);
+    // the number of counters of changes, a read is only cached if its key's counter is unchanged
+    private static final int CHANGE_STRIPES = 64;
+    // the changes of a read which can't be cached, the counters never reach it
+    private static final long NOT_SUBSCRIBED = -1;
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+            Long.class, Float.class, Double.class));
+
+    @NotNull
+    private final Class<V> vClass;
+    // each value is held as the value, or as a BytesStore of it marshalled
+    @NotNull
+    private final Map<K, Object> entries;
+    private final long[] changes = new long[CHANGE_STRIPES];
+    private volatile boolean enabled = true;
+    private boolean subscribed = false;
+
+    NearCache(@NotNull Class<V> vClass, int maxEntries) {
+        this.vClass = vClass;
+        this.entries = new LinkedHashMap<K, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Object> eldest) {
+                if (size() <= maxEntries)
+                    return false;
+                release(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    private static boolean isImmutable(@NotNull Class<?> type) {
+        return type.isEnum() || IMMUTABLE_TYPES.contains(type);
+    }
+
+    private static void release(@Nullable Object value) {
+        if (value instanceof BytesStore)
+            ((BytesStore) value).release();
+    }
+
+    private static int stripe(@NotNull Object key) {
+        return key.hashCode() & (CHANGE_STRIPES - 1);
+    }
+
+    /**
+     * @param key        the key
+     * @param usingValue the value to read into, if the value is marshalled, or {@code null}
+     * @return the cached value, or {@code null} if the key is not cached
+     */
+    @Nullable
+    V get(@NotNull Object key, @Nullable V usingValue) {
+        if (!enabled)
+            return null;
+
+        final Bytes in;
+        synchronized (this) {
+            final Object value = entries.get(key);
+            if (!(value instanceof BytesStore))
+                return (V) value;
+            // reserves the BytesStore, so it is not freed if evicted while being read
+            in = ((BytesStore) value).bytesForRead();
+        }
+
+        try {
+            return WireType.BINARY.apply(in).getValueIn().object(usingValue, vClass);
+        } finally {
+            in.release();
+        }
+    }
+
+    boolean containsKey(@NotNull Object key) {
+        if (!enabled)
+            return false;
+        synchronized (this) {
+            return entries.containsKey(key);
+        }
+    }
+
+    /**
+     * @return the number of changes to {@code key} so far, to pass to {@link #put} once the value
+     * has been read from the server, this must be called before the read is sent
+     */
+    synchronized long changes(@NotNull Object key) {
+        return subscribed ? changes[stripe(key)] : NOT_SUBSCRIBED;
+    }
+
+    /**
+     * caches a value read from the server, unless the key has changed since
+     *
+     * @param changes the {@link #changes} to the key before the value was read
+     */
+    void put(@NotNull K key, @Nullable V value, long changes) {
+        if (!enabled || value == null || changes == NOT_SUBSCRIBED)
+            return;
+
+        final Object held = hold(value);
+        synchronized (this) {
+            if (this.changes[stripe(key)] != changes) {
+                release(held);
+                return;
+            }
+            release(entries.put(key, held));
+        }
+    }
+
+    /**
+     * removes a key changed by this client, the event of the change follows
+     */
+    synchronized void invalidate(@NotNull Object key) {
+        changes[stripe(key)]++;
+        release(entries.remove(key));
+    }
+
+    synchronized void clear() {
+        for (int i = 0; i < CHANGE_STRIPES; i++)
+            changes[i]++;
+        entries.values().forEach(NearCache::release);
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void onMessage(@NotNull MapEvent<K, V> event) {
+        final K key = event.getKey();
+        final V value = event.getValue();
+
+        final boolean isCached;
+        synchronized (this) {
+            changes[stripe(key)]++;
+            isCached = entries.containsKey(key);
+            if (value == null || !isCached) {
+                release(entries.remove(key));
+                return;
+            }
+        }
+
+        // only the keys already cached are updated
+        final Object held = hold(value);
+        synchronized (this) {
+            changes[stripe(key)]++;
+            if (entries.containsKey(key))
+                release(entries.put(key, held));
+            else
+                release(held);
+        }
+    }
+
+    @Override
+    public synchronized void onSubscribe() {
+        // on a reconnect, the events while disconnected were missed
+        clear();
+        subscribed = true;
+    }
+
+    @Override
+    public synchronized void onConnectionLost() {
+        subscribed = false;
+        clear();
+    }
+
+    @Override
+    public void onEndOfSubscription() {
+        // without events, the cache can't be kept coherent
+        enabled = false;
+        clear();
+    }
+
+    @NotNull
+    private Object hold(@NotNull V value) {
+        if (isImmutable(value.getClass()))
+            return value;
+
+        final Bytes bytes = Wires.acquireBytes();
+        WireType.BINARY.apply(bytes).getValueOut().object(vClass, value);
+
+        final int size = (int) bytes.readRemaining();
+        if (size < OFF_HEAP_MIN_SIZE)
+            return BytesStore.wrap(bytes.toByteArray());
+
+        final NativeBytesStore<Void> store = NativeBytesStore.nativeStoreWithFixedCapacity(size);
+        store.write(0, bytes, bytes.readPosition(), size);
+        return store;
+    }
+}
@@ -101,6 +101,12 @@ public class RemoteIndexQueueView<K extends Marshallable, V extends Marshallable
                         .typedMarshallable(q);
             }
 
+            private void onMessage(@NotNull ValueIn valueIn) throws InvalidSubscriberException {
+                @Nullable final IndexedValue<V> e = valueIn.typedMarshallable(reuseFunction);
+                fromIndex = Math.max(fromIndex, e.index());
+                subscriber.onMessage(e);
+            }
+
             @Override
             public void onConsumer(@NotNull final WireIn inWire) {
 
@@ -113,12 +119,19 @@ public class RemoteIndexQueueView<K extends Marshallable, V extends Marshallable
 
                     if (reply.contentEquals(sb))
                         try {
-                            @Nullable final IndexedValue<V> e = valueIn.typedMarshallable(reuseFunction);
-                            fromIndex = Math.max(fromIndex, e.index());
-                            subscriber.onMessage(e);
+                            onMessage(valueIn);
                         } catch (InvalidSubscriberException e) {
                             RemoteIndexQueueView.this.unregisterSubscriber(subscriber);
                         }
+                    else if (batch.contentEquals(sb))
+                        valueIn.sequence(this, (s, v) -> {
+                            try {
+                                while (v.hasNextSequenceItem())
+                                    s.onMessage(v);
+                            } catch (InvalidSubscriberException e) {
+                                RemoteIndexQueueView.this.unregisterSubscriber(subscriber);
+                            }
+                        });
                     else if (onEndOfSubscription.contentEquals(sb)) {
                         subscriber.onEndOfSubscription();
                         hub.unsubscribe(tid());
@@ -18,6 +18,9 @@
 package net.openhft.chronicle.engine.map.remote;
 
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.threads.EventLoop;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
 import net.openhft.chronicle.core.util.SerializableBiFunction;
 import net.openhft.chronicle.core.util.SerializableUpdaterWithArg;
 import net.openhft.chronicle.core.util.ThrowingConsumer;
@@ -35,10 +38,14 @@ import net.openhft.chronicle.engine.collection.ClientWiredStatelessChronicleSet;
 import net.openhft.chronicle.engine.map.InsertedEvent;
 import net.openhft.chronicle.engine.map.ObjectKeyValueStore;
 import net.openhft.chronicle.engine.map.ObjectSubscription;
+import net.openhft.chronicle.engine.query.Filter;
+import net.openhft.chronicle.network.connection.AbstractAsyncTemporarySubscription;
 import net.openhft.chronicle.network.connection.AbstractStatelessClient;
 import net.openhft.chronicle.network.connection.CoreFields;
 import net.openhft.chronicle.network.connection.TcpChannelHub;
 import net.openhft.chronicle.wire.ValueIn;
+import net.openhft.chronicle.wire.WireIn;
+import net.openhft.chronicle.wire.WireOut;
 import net.openhft.chronicle.wire.Wires;
 import net.openhft.chronicle.wire.WriteMarshallable;
 import net.openhft.chronicle.wire.WriteValue;
@@ -47,6 +54,10 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static net.openhft.chronicle.engine.server.internal.MapWireHandler.EventId;
@@ -57,6 +68,7 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
         implements Cloneable, ObjectKeyValueStore<K, V> {
 
     private static final WriteValue VOID_PARAMETERS = WriteMarshallable.EMPTY;
+    private static final int BULK_BATCH_SIZE = Integer.getInteger("remoteMap.bulkBatchSize", 1024);
 
     private final Class<K> kClass;
     private final Class<V> vClass;
@@ -68,6 +80,14 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
     // todo
     @NotNull
     private final ObjectSubscription<K, V> subscriptions;
+    @Nullable
+    private final NearCache<K, V> nearCache;
+    // the futures of async requests waiting for a reply, failed if the store is closed
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+    // completes the futures of async requests, so they are not completed on the hub's reader thread
+    @Nullable
+    private final EventLoop eventLoop;
+    private volatile boolean closed = false;
 
     public RemoteKeyValueStore(@NotNull final RequestContext context,
                                @NotNull Asset asset,
@@ -77,9 +97,18 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
         this.kClass = context.keyType();
         this.vClass = context.valueType();
         this.context = context;
+        this.eventLoop = asset.findOrCreateView(EventLoop.class);
 
         subscriptions = asset.acquireView(ObjectSubscription.class, context);
         subscriptions.setKvStore(this);
+
+        if (context.nearCacheEntries() > 0) {
+            nearCache = new NearCache<>(vClass, context.nearCacheEntries());
+            subscriptions.registerSubscriber(context.clone().bootstrap(false).elementType(MapEvent.class),
+                    nearCache, Filter.empty());
+        } else {
+            nearCache = null;
+        }
     }
 
     public RemoteKeyValueStore(@NotNull RequestContext requestContext, @NotNull Asset asset) {
@@ -107,6 +136,7 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
     public V putIfAbsent(K key, V value) {
         checkKey(key);
         checkValue(value);
+        invalidate(key);
         return proxyReturnTypedObject(putIfAbsent, null, vClass, key, value);
     }
 
@@ -125,6 +155,7 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
         if (key == null)
             return false;
         checkValue(value);
+        invalidate(key);
 
         return proxyReturnBooleanWithArgs(removeWithValue, key, value);
     }
@@ -134,6 +165,7 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
         checkKey(key);
         checkValue(oldValue);
         checkValue(newValue);
+        invalidate(key);
         return proxyReturnBooleanWithArgs(replaceForOld, key, oldValue, newValue);
     }
 
@@ -143,6 +175,7 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
     public V replace(K key, V value) {
         checkKey(key);
         checkValue(value);
+        invalidate(key);
         return proxyReturnTypedObject(replace, null, vClass, key, value);
     }
 
@@ -160,6 +193,26 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
         sendEventAsync(update2, toParameters(update2, updateFunction, arg), true);
     }
 
+    /**
+     * Update a key on the server, where it is atomic, sending the function rather than the values.
+     */
+    @Nullable
+    @Override
+    public V compute(K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkKey(key);
+        invalidate(key);
+        return (V) applyTo((SerializableBiFunction) MapFunction.COMPUTE, KeyFunctionPair.of(key, remappingFunction));
+    }
+
+    /**
+     * As for {@link #compute(Object, BiFunction)} without waiting for, or sending back, the result.
+     */
+    public void asyncCompute(K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkKey(key);
+        invalidate(key);
+        asyncUpdate((SerializableUpdaterWithArg) MapUpdate.COMPUTE, KeyFunctionPair.of(key, remappingFunction));
+    }
+
     @Override
     public void keysFor(final int segment, @NotNull final SubscriptionConsumer<K> kConsumer) throws InvalidSubscriberException {
         keySet().forEach(ThrowingConsumer.asConsumer(kConsumer::accept));
@@ -235,21 +288,290 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
     @Override
     public boolean containsKey(Object key) {
         checkKey(key);
+        if (nearCache != null && nearCache.containsKey(key))
+            return true;
         return proxyReturnBoolean(containsKey, out -> out.object(key));
     }
 
     @Override
     @Nullable
     public V get(Object key) {
-        checkKey(key);
-        return this.proxyReturnTypedObject(get, null, vClass, key);
+        return getUsing((K) key, null);
     }
 
     @Override
     @Nullable
     public V getUsing(K key, Object usingValue) {
         checkKey(key);
-        return this.proxyReturnTypedObject(get, (V) usingValue, vClass, key);
+        if (nearCache == null)
+            return this.proxyReturnTypedObject(get, (V) usingValue, vClass, key);
+
+        @Nullable final V cached = nearCache.get(key, (V) usingValue);
+        if (cached != null)
+            return cached;
+
+        final long changes = nearCache.changes(key);
+        @Nullable final V value = this.proxyReturnTypedObject(get, (V) usingValue, vClass, key);
+        nearCache.put(key, value, changes);
+        return value;
+    }
+
+    @NotNull
+    @Override
+    public Map<K, V> getAll(@NotNull Collection<? extends K> keys) {
+        @NotNull final Map<K, V> result = new LinkedHashMap<>();
+        @NotNull final List<K> toRead = new ArrayList<>();
+        for (K key : keys) {
+            checkKey(key);
+            @Nullable final V cached = nearCache == null ? null : nearCache.get(key, null);
+            if (cached != null)
+                result.put(key, cached);
+            else
+                toRead.add(key);
+        }
+
+        forEachBatch(toRead, batch -> {
+            final long[] changes = nearCache == null ? null : new long[batch.size()];
+            for (int i = 0; changes != null && i < changes.length; i++)
+                changes[i] = nearCache.changes(batch.get(i));
+
+            @NotNull final List<V> values = proxyReturnWireConsumerInOut(getAll, CoreFields.reply,
+                    valueOut -> valueOut.sequence(out -> batch.forEach(out::object)),
+                    read -> {
+                        @NotNull final List<V> list = new ArrayList<>(batch.size());
+                        read.sequence(list, (l, v) -> {
+                            while (v.hasNextSequenceItem())
+                                l.add(v.object(vClass));
+                        });
+                        return list;
+                    });
+
+            for (int i = 0; i < batch.size(); i++) {
+                final V value = values.get(i);
+                if (value == null)
+                    continue;
+                result.put(batch.get(i), value);
+                if (nearCache != null)
+                    nearCache.put(batch.get(i), value, changes[i]);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void putAll(@NotNull Map<? extends K, ? extends V> map) {
+        @NotNull final List<Map.Entry<? extends K, ? extends V>> entries = new ArrayList<>(map.entrySet());
+        for (@NotNull Map.Entry<? extends K, ? extends V> entry : entries) {
+            checkKey(entry.getKey());
+            checkValue(entry.getValue());
+            invalidate(entry.getKey());
+        }
+
+        forEachBatch(entries, batch ->
+                proxyReturnWireConsumerInOut(putAll, CoreFields.reply,
+                        valueOut -> valueOut.sequence(out -> batch.forEach(e -> out.marshallable(m -> {
+                            m.write(put.params()[0]).object(e.getKey());
+                            m.write(put.params()[1]).object(e.getValue());
+                        }))),
+                        ValueIn::int64));
+    }
+
+    @Override
+    public void removeAll(@NotNull Collection<? extends K> keys) {
+        @NotNull final List<K> toRemove = new ArrayList<>(keys);
+        for (K key : toRemove) {
+            checkKey(key);
+            invalidate(key);
+        }
+
+        forEachBatch(toRemove, batch ->
+                proxyReturnWireConsumerInOut(removeAll, CoreFields.reply,
+                        valueOut -> valueOut.sequence(out -> batch.forEach(out::object)),
+                        ValueIn::int64));
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<V> getAsync(K key) {
+        checkKey(key);
+        if (nearCache == null)
+            return sendAsync(get, out -> out.object(key), in -> in.object(vClass));
+
+        @Nullable final V cached = nearCache.get(key, null);
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+
+        final long changes = nearCache.changes(key);
+        return sendAsync(get, out -> out.object(key), in -> {
+            @Nullable final V value = in.object(vClass);
+            nearCache.put(key, value, changes);
+            return value;
+        });
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Boolean> containsKeyAsync(K key) {
+        checkKey(key);
+        if (nearCache != null && nearCache.containsKey(key))
+            return CompletableFuture.completedFuture(true);
+        return sendAsync(containsKey, out -> out.object(key), ValueIn::bool);
+    }
+
+    /**
+     * a put has no reply, so this is sent as a putAll of one entry, which does.
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<Void> putAsync(K key, V value) {
+        checkKey(key);
+        checkValue(value);
+        invalidate(key);
+        return sendAsync(putAll, valueOut -> valueOut.sequence(out -> out.marshallable(m -> {
+            m.write(put.params()[0]).object(key);
+            m.write(put.params()[1]).object(value);
+        })), in -> {
+            in.int64();
+            return null;
+        });
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<V> getAndPutAsync(K key, V value) {
+        checkKey(key);
+        checkValue(value);
+        invalidate(key);
+        return sendAsync(getAndPut, toParameters(getAndPut, key, value), in -> in.object(vClass));
+    }
+
+    /**
+     * a remove has no reply, so this is sent as a removeAll of one key, which does.
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<Void> removeAsync(K key) {
+        checkKey(key);
+        invalidate(key);
+        return sendAsync(removeAll, valueOut -> valueOut.sequence(out -> out.object(key)), in -> {
+            in.int64();
+            return null;
+        });
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<V> getAndRemoveAsync(K key) {
+        checkKey(key);
+        invalidate(key);
+        return sendAsync(getAndRemove, out -> out.object(key), in -> in.object(vClass));
+    }
+
+    /**
+     * sends a request without waiting for its reply. Each request is a one off subscription with
+     * its own tid, so the hub passes the reply to the subscription which sent it and any number
+     * of requests can be in flight on the connection at once.
+     * <p>
+     * The request is not sent again on reconnecting, as it may not be idempotent, instead the
+     * future fails if the connection is lost, or the store closed, before the reply is read. The
+     * future is completed on the tree's event loop rather than the hub's reader, so a dependent
+     * action does not hold up the connection, but should not block either as it holds up the event
+     * loop.
+     *
+     * @param eventId    the request to send
+     * @param parameters the parameters of the request
+     * @param reader     reads the value of the reply
+     * @return a future completed with the value of the reply
+     */
+    @NotNull
+    private <R> CompletableFuture<R> sendAsync(@NotNull EventId eventId,
+                                               @NotNull WriteValue parameters,
+                                               @NotNull Function<ValueIn, R> reader) {
+        @NotNull final CompletableFuture<R> future = new CompletableFuture<>();
+        if (closed || !hub.isOpen()) {
+            future.completeExceptionally(new IORuntimeException("closed before sending " + eventId));
+            return future;
+        }
+        pending.add(future);
+        future.whenComplete((r, t) -> pending.remove(future));
+
+        hub.subscribe(new AbstractAsyncTemporarySubscription(hub, csp, "Remote KV Store " + eventId) {
+            @Override
+            public void onSubscribe(@NotNull final WireOut wireOut) {
+                parameters.writeValue(wireOut.writeEventName(eventId));
+            }
+
+            @Override
+            public void onConsumer(@NotNull final WireIn inWire) {
+                try {
+                    inWire.readDocument(null, d -> {
+                        final StringBuilder eventName = Wires.acquireStringBuilder();
+                        @NotNull final ValueIn valueIn = d.readEventName(eventName);
+                        if (CoreFields.reply.contentEquals(eventName)) {
+                            // the reply is read here, as the wire is reused for the next message
+                            final R value = reader.apply(valueIn);
+                            complete(() -> future.complete(value));
+                        } else {
+                            completeExceptionally(future, new IllegalStateException(
+                                    "unexpected event=" + eventName + " in reply to " + eventId));
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    completeExceptionally(future, e);
+                } finally {
+                    hub.unsubscribe(tid());
+                }
+            }
+
+            @Override
+            public void onClose() {
+                completeExceptionally(future, new IORuntimeException(
+                        "connection lost before the reply to " + eventId));
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (@NotNull CompletableFuture<?> future : pending)
+            completeExceptionally(future, new IORuntimeException("closed before the reply"));
+        super.close();
+    }
+
+    private void completeExceptionally(@NotNull CompletableFuture<?> future, @NotNull Throwable t) {
+        if (!future.isDone())
+            complete(() -> future.completeExceptionally(t));
+    }
+
+    /**
+     * runs {@code completion} once on the event loop, or on this thread if the event loop has
+     * already been closed, as when the tree is closed before this store
+     */
+    private void complete(@NotNull Runnable completion) {
+        if (eventLoop == null || eventLoop.isClosed()) {
+            completion.run();
+            return;
+        }
+        eventLoop.addHandler(() -> {
+            completion.run();
+            throw new InvalidEventHandlerException();
+        });
+    }
+
+    /**
+     * passes {@code items} in batches of up to {@code remoteMap.bulkBatchSize}, each sent as one
+     * request, so a large bulk operation is not one very large message.
+     */
+    private static <T> void forEachBatch(@NotNull List<T> items, @NotNull Consumer<List<T>> batchConsumer) {
+        for (int from = 0; from < items.size(); from += BULK_BATCH_SIZE)
+            batchConsumer.accept(items.subList(from, Math.min(items.size(), from + BULK_BATCH_SIZE)));
+    }
+
+    private void invalidate(Object key) {
+        if (nearCache != null)
+            nearCache.invalidate(key);
     }
 
     @Override
@@ -260,6 +582,7 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
     @Override
     public boolean remove(Object key) {
         checkKey(key);
+        invalidate(key);
         sendEventAsync(remove, toParameters(remove, key), true);
         return false;
     }
@@ -268,6 +591,7 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
     @Override
     public V getAndRemove(final Object key) {
         checkKey(key);
+        invalidate(key);
         return proxyReturnTypedObject(getAndRemove, null, vClass, key);
     }
 
@@ -280,6 +604,7 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
     public boolean put(K key, V value) {
         checkKey(key);
         checkValue(value);
+        invalidate(key);
         sendEventAsync(put, toParameters(put, key, value), true);
         return false;
     }
@@ -289,11 +614,14 @@ public class RemoteKeyValueStore<K, V> extends AbstractStatelessClient<EventId>
     public V getAndPut(final Object key, final Object value) {
         checkKey(key);
         checkValue(value);
+        invalidate(key);
         return proxyReturnTypedObject(getAndPut, null, vClass, key, value);
     }
 
     @Override
     public void clear() {
+        if (nearCache != null)
+            nearCache.clear();
         proxyReturnVoid(clear);
     }
 
@@ -154,7 +154,7 @@ public class RemoteMapView<K, MV, V> extends VanillaMapView<K, V> {
     @Override
     public V compute(@org.jetbrains.annotations.NotNull K key, @org.jetbrains.annotations.NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
         checkKey(key);
-        return (V) this.applyTo((SerializableBiFunction) MapFunction.COMPUTE, KeyFunctionPair.of(key, remappingFunction));
+        return store().compute(key, remappingFunction);
     }
 
     @org.jetbrains.annotations.NotNull
@@ -166,6 +166,11 @@ public class RemoteMapView<K, MV, V> extends VanillaMapView<K, V> {
         return (V) this.applyTo((SerializableBiFunction) MapFunction.MERGE, KeyValueFunctionTuple.of(key, value, remappingFunction));
     }
 
+    @org.jetbrains.annotations.NotNull
+    private RemoteKeyValueStore<K, V> store() {
+        return (RemoteKeyValueStore<K, V>) underlying();
+    }
+
     // core functionality.
     @Nullable
     @Override
@@ -231,17 +236,15 @@ public class RemoteMapView<K, MV, V> extends VanillaMapView<K, V> {
     public void asyncUpdateKey(@org.jetbrains.annotations.NotNull K key, @NotNull SerializableFunction<V,
             V> updateFunction) {
         checkKey(key);
-        // TODO CE-95 handle this natively.
         @org.jetbrains.annotations.NotNull SerializableBiFunction<K, V, V> kvvBiFunction = (k, v) -> updateFunction.apply(v);
-        compute(key, kvvBiFunction);
+        store().asyncCompute(key, kvvBiFunction);
     }
 
     @Override
     public <T> void asyncUpdateKey(@org.jetbrains.annotations.NotNull K key, @NotNull SerializableBiFunction<V, T, V> updateFunction, T argument) {
         checkKey(key);
-        // TODO CE-95 handle this natively.
         @org.jetbrains.annotations.NotNull SerializableBiFunction<K, V, V> kvvBiFunction = (k, v) -> updateFunction.apply(v, argument);
-        compute(key, kvvBiFunction);
+        store().asyncCompute(key, kvvBiFunction);
     }
 
     @Nullable
@@ -250,7 +253,7 @@ public class RemoteMapView<K, MV, V> extends VanillaMapView<K, V> {
             SerializableFunction<V, V> updateFunction, @NotNull SerializableFunction<V, R>
                                        returnFunction) {
         checkKey(key);
-        // TODO CE-95 handle this natively.
+        // the server updates the key atomically and sends back only the result.
         @org.jetbrains.annotations.NotNull SerializableBiFunction<K, V, V> kvvBiFunction = (k, v) -> updateFunction.apply(v);
         return applyTo((map, kvf) -> returnFunction.apply(map.compute(key, kvvBiFunction)), key);
     }
@@ -261,7 +264,7 @@ public class RemoteMapView<K, MV, V> extends VanillaMapView<K, V> {
             updateFunction, @Nullable T updateArgument, @NotNull SerializableBiFunction<V, RT,
             R> returnFunction, @Nullable RT returnArgument) {
         checkKey(key);
-        // TODO CE-95 handle this natively.
+        // the server updates the key atomically and sends back only the result.
         @org.jetbrains.annotations.NotNull SerializableBiFunction<K, V, V> kvvBiFunction = (k, v) -> updateFunction.apply(v, updateArgument);
         return applyTo((map, kvf) -> returnFunction.apply(map.compute(key, kvvBiFunction), returnArgument), key);
     }
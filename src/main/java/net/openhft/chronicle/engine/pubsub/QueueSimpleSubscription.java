@@ -19,8 +19,6 @@ package net.openhft.chronicle.engine.pubsub;
 
 import net.openhft.chronicle.bytes.BytesStore;
 import net.openhft.chronicle.core.Jvm;
-import net.openhft.chronicle.core.threads.EventLoop;
-import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
 import net.openhft.chronicle.engine.api.pubsub.InvalidSubscriberException;
 import net.openhft.chronicle.engine.api.pubsub.Subscriber;
 import net.openhft.chronicle.engine.api.tree.Asset;
@@ -28,15 +26,15 @@ import net.openhft.chronicle.engine.api.tree.AssetNotFoundException;
 import net.openhft.chronicle.engine.api.tree.RequestContext;
 import net.openhft.chronicle.engine.query.Filter;
 import net.openhft.chronicle.engine.tree.ChronicleQueueView;
+import net.openhft.chronicle.engine.tree.QueueDemultiplexer;
 import net.openhft.chronicle.engine.tree.QueueView;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 /*
@@ -45,15 +43,13 @@ import java.util.function.Function;
 public class QueueSimpleSubscription<E> implements SimpleSubscription<E> {
 
     private static final Logger LOG = LoggerFactory.getLogger(QueueSimpleSubscription.class);
-    private final Map<Subscriber<E>, AtomicBoolean> subscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber<E>> subscribers = ConcurrentHashMap.newKeySet();
     private final Function<Object, E> valueReader;
 
     // private final ObjectSubscription objectSubscription;
 
     @NotNull
     private final ChronicleQueueView<?, E> chronicleQueue;
-    @NotNull
-    private final EventLoop eventLoop;
     private final String topic;
 
     public QueueSimpleSubscription(Function<Object, E> valueReader,
@@ -61,7 +57,6 @@ public class QueueSimpleSubscription<E> implements SimpleSubscription<E> {
         this.valueReader = valueReader;
         this.topic = topic;
         chronicleQueue = (ChronicleQueueView) parent.acquireView(QueueView.class);
-        eventLoop = parent.acquireView(EventLoop.class);
     }
 
     @Override
@@ -75,42 +70,30 @@ public class QueueSimpleSubscription<E> implements SimpleSubscription<E> {
                                    int throttlePeriodMs,
                                    @NotNull Subscriber<E> subscriber) throws AssetNotFoundException {
 
-        @NotNull AtomicBoolean terminate = new AtomicBoolean();
-        subscribers.put(subscriber, terminate);
-
-        @Nullable final QueueView.Tailer<?, E> tailer = chronicleQueue.tailer();
-
-        eventLoop.addHandler(() -> {
-
-            // this will be set to true if onMessage throws InvalidSubscriberException
-            if (terminate.get())
-                throw new InvalidEventHandlerException();
-
-            @Nullable final QueueView.Excerpt<?, E> next = tailer.read();
+        if (!subscribers.add(subscriber))
+            return;
 
-            if (next == null)
-                return false;
+        // the queue is read once for all the subscribers, and only the messages of this topic are passed on
+        demultiplexer().registerSubscriber(subscriber, topic, (t, message) -> {
             try {
-                Object topic = next.topic();
-
-                if (!this.topic.equals(topic.toString()))
-                    return true;
-
-                subscriber.onMessage(next.message());
-            } catch (InvalidSubscriberException e) {
-                terminate.set(true);
+                subscriber.onMessage(message);
+            } catch (InvalidSubscriberException | RuntimeException e) {
+                // the demultiplexer drops the subscriber as well
+                subscribers.remove(subscriber);
+                throw e;
             }
-
-            return true;
         });
+    }
 
+    @NotNull
+    private QueueDemultiplexer<Object, E> demultiplexer() {
+        return (QueueDemultiplexer) chronicleQueue.demultiplexer();
     }
 
     @Override
     public void unregisterSubscriber(Subscriber subscriber) {
-        final AtomicBoolean terminator = subscribers.remove(subscriber);
-        if (terminator != null)
-            terminator.set(true);
+        if (subscribers.remove(subscriber))
+            demultiplexer().unregisterSubscriber(subscriber, topic);
     }
 
     @Override
@@ -147,7 +130,7 @@ public class QueueSimpleSubscription<E> implements SimpleSubscription<E> {
 
     @Override
     public void close() {
-        for (@NotNull Subscriber<E> subscriber : subscribers.keySet()) {
+        for (@NotNull Subscriber<E> subscriber : subscribers) {
             try {
                 subscriber.onEndOfSubscription();
             } catch (Exception e) {
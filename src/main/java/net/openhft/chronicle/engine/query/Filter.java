@@ -17,7 +17,6 @@
 
 package net.openhft.chronicle.engine.query;
 
-import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.util.SerializableFunction;
 import net.openhft.chronicle.core.util.SerializablePredicate;
 import net.openhft.chronicle.engine.api.pubsub.InvalidSubscriberException;
@@ -26,14 +25,15 @@ import net.openhft.chronicle.engine.api.query.Query;
 import net.openhft.chronicle.wire.Marshallable;
 import net.openhft.chronicle.wire.WireIn;
 import net.openhft.chronicle.wire.WireOut;
+import net.openhft.chronicle.wire.Wires;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Stream;
 
 /**
  * @author Rob Austin.
@@ -152,6 +152,39 @@ public class Filter<E> implements Marshallable, Iterable<Operation> {
         return pipeline.get(index);
     }
 
+    /**
+     * Compiles the pipeline into a chain of subscribers, one for each operation, which ends with
+     * {@code subscriber}. Each stage only knows its own operation, so nothing is looked up or cast
+     * for each message.
+     *
+     * @param subscriber the subscriber to the result of the pipeline
+     * @return the first stage of the chain, or {@code subscriber} if the pipeline is empty
+     */
+    @NotNull
+    Subscriber<Object> compile(@NotNull Subscriber<?> subscriber) {
+        @SuppressWarnings("unchecked")
+        Subscriber<Object> next = (Subscriber<Object>) subscriber;
+        for (int i = pipelineSize() - 1; i >= 0; i--)
+            next = compile(pipeline.get(i), next);
+        return next;
+    }
+
+    @NotNull
+    private static Subscriber<Object> compile(@NotNull Operation o, @NotNull Subscriber<Object> next) {
+        switch (o.op()) {
+            case FILTER:
+                return new FilterStage(o.wrapped(), next);
+            case MAP:
+                return new MapStage(o.wrapped(), next);
+            case PROJECT:
+                return new ProjectStage(o.wrapped(), next);
+            case FLAT_MAP:
+                return new FlatMapStage(o.wrapped(), next);
+            default:
+                throw new UnsupportedOperationException("Unknown operation " + o.op());
+        }
+    }
+
     /**
      * marshableFilters subscription on based on {@code net.openhft.chronicle.engine.query.Filter}
      */
@@ -160,47 +193,17 @@ public class Filter<E> implements Marshallable, Iterable<Operation> {
         @NotNull
         private final Subscriber<E> subscriber;
         @NotNull
-        private final Filter<E> filter;
+        private final Subscriber<Object> pipeline;
 
         public FilteredSubscriber(@NotNull Filter<E> filter,
                                   @NotNull Subscriber<E> subscriber) {
-            this.filter = filter;
             this.subscriber = subscriber;
+            this.pipeline = filter.compile(subscriber);
         }
 
         @Override
         public void onMessage(@NotNull E message) throws InvalidSubscriberException {
-
-            for (@NotNull Operation o : filter) {
-                switch (o.op()) {
-                    case FILTER:
-                        final Predicate<E> serializable = o.wrapped();
-                        if (!serializable.test(message))
-                            return;
-                        break;
-
-                    case MAP:
-                        final Function<Object, E> function = o.wrapped();
-                        message = function.apply(message);
-                        break;
-
-                    case FLAT_MAP:
-                        final Function<Object, Stream<E>> func = o.wrapped();
-                        func.apply(message).forEach(e -> {
-                            try {
-                                FilteredSubscriber.this.onMessage(e);
-                            } catch (InvalidSubscriberException ise) {
-                                throw Jvm.rethrow(ise);
-                            }
-                        });
-                        break;
-
-                    case PROJECT:
-                        throw new UnsupportedOperationException("todo");
-                }
-            }
-
-            subscriber.onMessage(message);
+            pipeline.onMessage(message);
         }
 
         @Override
@@ -208,4 +211,79 @@ public class Filter<E> implements Marshallable, Iterable<Operation> {
             subscriber.onEndOfSubscription();
         }
     }
+
+    private static final class FilterStage implements Subscriber<Object> {
+        @NotNull
+        private final Predicate<Object> predicate;
+        @NotNull
+        private final Subscriber<Object> next;
+
+        FilterStage(@NotNull Predicate<Object> predicate, @NotNull Subscriber<Object> next) {
+            this.predicate = predicate;
+            this.next = next;
+        }
+
+        @Override
+        public void onMessage(Object message) throws InvalidSubscriberException {
+            if (predicate.test(message))
+                next.onMessage(message);
+        }
+    }
+
+    private static final class MapStage implements Subscriber<Object> {
+        @NotNull
+        private final Function<Object, Object> mapper;
+        @NotNull
+        private final Subscriber<Object> next;
+
+        MapStage(@NotNull Function<Object, Object> mapper, @NotNull Subscriber<Object> next) {
+            this.mapper = mapper;
+            this.next = next;
+        }
+
+        @Override
+        public void onMessage(Object message) throws InvalidSubscriberException {
+            next.onMessage(mapper.apply(message));
+        }
+    }
+
+    private static final class ProjectStage implements Subscriber<Object> {
+        @NotNull
+        private final Class<?> rClass;
+        @NotNull
+        private final Subscriber<Object> next;
+
+        ProjectStage(@NotNull Class<?> rClass, @NotNull Subscriber<Object> next) {
+            this.rClass = rClass;
+            this.next = next;
+        }
+
+        @Override
+        public void onMessage(Object message) throws InvalidSubscriberException {
+            next.onMessage(Wires.project(rClass, message));
+        }
+    }
+
+    /**
+     * passes each element of the query to the rest of the pipeline, an {@link
+     * InvalidSubscriberException} thrown by the rest of the pipeline is passed through as is.
+     */
+    private static final class FlatMapStage implements Subscriber<Object> {
+        @NotNull
+        private final Function<Object, Query<?>> mapper;
+        @NotNull
+        private final Subscriber<Object> next;
+
+        FlatMapStage(@NotNull Function<Object, Query<?>> mapper, @NotNull Subscriber<Object> next) {
+            this.mapper = mapper;
+            this.next = next;
+        }
+
+        @Override
+        public void onMessage(Object message) throws InvalidSubscriberException {
+            @Nullable final Query<?> query = mapper.apply(message);
+            if (query != null)
+                query.forEach(next);
+        }
+    }
 }
@@ -22,6 +22,10 @@ import net.openhft.chronicle.wire.WireType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.Function;
 
 /**
@@ -37,6 +41,14 @@ public class QueueConfig {
     MessageAdaptor sourceMessageAdaptor;
     @NotNull
     WireType wireType;
+    @Nullable
+    String indexPath;
+    long indexEntries = 1 << 20;
+    double indexAverageValueSize = 256;
+    int indexShards = 1;
+    long topicIndexEntries = 0;
+    @NotNull
+    Map<String, Set<String>> secondaryIndexes = new ConcurrentHashMap<>();
 
     /**
      * @param masterIDFunction a give a assert-URI returns the master ID
@@ -75,4 +87,97 @@ public class QueueConfig {
     public WireType wireType() {
         return wireType;
     }
+
+    /**
+     * @return the directory used to persist the index of the {@link
+     * net.openhft.chronicle.engine.api.query.IndexQueueView}, if {@code null} the index is held on
+     * heap and rebuilt on restart
+     */
+    @Nullable
+    public String indexPath() {
+        return indexPath;
+    }
+
+    @NotNull
+    public QueueConfig indexPath(@Nullable String indexPath) {
+        this.indexPath = indexPath;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of keys expected for each event name in the persisted index
+     */
+    public long indexEntries() {
+        return indexEntries;
+    }
+
+    @NotNull
+    public QueueConfig indexEntries(long indexEntries) {
+        this.indexEntries = indexEntries;
+        return this;
+    }
+
+    public double indexAverageValueSize() {
+        return indexAverageValueSize;
+    }
+
+    @NotNull
+    public QueueConfig indexAverageValueSize(double indexAverageValueSize) {
+        this.indexAverageValueSize = indexAverageValueSize;
+        return this;
+    }
+
+    /**
+     * @return the number of threads used to build the index of the {@link
+     * net.openhft.chronicle.engine.api.query.IndexQueueView}, each thread tails the whole queue but
+     * only deserializes the events whose name hashes to it
+     */
+    public int indexShards() {
+        return indexShards;
+    }
+
+    @NotNull
+    public QueueConfig indexShards(int indexShards) {
+        this.indexShards = indexShards;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of topics expected in the index of the latest message published
+     * to each topic, which is persisted alongside the queue, or 0, the default, if the queue has
+     * no such index and the latest message of a topic is found by scanning the queue
+     */
+    public long topicIndexEntries() {
+        return topicIndexEntries;
+    }
+
+    @NotNull
+    public QueueConfig topicIndexEntries(long topicIndexEntries) {
+        this.topicIndexEntries = topicIndexEntries;
+        return this;
+    }
+
+    /**
+     * declares a secondary index, on a field of the values of an event, so that subscriptions to
+     * the {@link net.openhft.chronicle.engine.api.query.IndexQueueView} that select a value or
+     * range of values of that field, only have to read the matching values when they are
+     * bootstrapped
+     *
+     * @param eventName the name of the event
+     * @param field     the name of the field of the value of the event
+     * @return this
+     */
+    @NotNull
+    public QueueConfig secondaryIndex(@NotNull String eventName, @NotNull String field) {
+        secondaryIndexes.computeIfAbsent(eventName, k -> new CopyOnWriteArraySet<>()).add(field);
+        return this;
+    }
+
+    /**
+     * @return the names of the fields that have a secondary index, by event name
+     */
+    @NotNull
+    public Map<String, Set<String>> secondaryIndexes() {
+        return secondaryIndexes;
+    }
 }
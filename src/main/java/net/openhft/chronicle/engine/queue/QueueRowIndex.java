@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.queue;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.engine.tree.QueueView;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * counts the rows of a queue matching a column view filter, and records the queue index of every
+ * {@link #CHECKPOINT_INTERVAL}th matching row, so a page can be read from the nearest checkpoint
+ * and the row count is known without scanning the queue. The index is built by reading the queue
+ * in the background, and is persisted, so on restart only the messages appended since are read.
+ */
+class QueueRowIndex<V> implements EventHandler, Closeable {
+
+    // the number of matching rows between each checkpoint
+    static final int CHECKPOINT_INTERVAL = 1024;
+    // the number of messages read each time the event loop calls this
+    static final int MAX_READ_PER_ACTION = 4096;
+    private static final String COUNT = "count";
+    private static final String LAST_INDEX_READ = "lastIndexRead";
+
+    @NotNull
+    private final QueueView<String, V> queueView;
+    @NotNull
+    private final Predicate<QueueView.Excerpt<String, V>> filter;
+    @NotNull
+    private final String name;
+    // the row number of each checkpoint to the queue index of that row
+    private final NavigableMap<Long, Long> checkpoints = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // where the checkpoints are persisted, keyed by name, or null if they are not
+    @Nullable
+    private final Map<String, Long> store;
+    // false once the store is full
+    private boolean persisting;
+    private volatile long count;
+    // the index of the last message read, or -1 if none has been
+    private long lastIndexRead = -1;
+    private volatile boolean isClosed;
+
+    /**
+     * @param queueView the queue
+     * @param filter    the rows to index
+     * @param store     where the index is persisted, shared by the filters of the queue, or {@code
+     *                  null} if it is not persisted
+     * @param name      the unique name of the filter in the {@code store}
+     */
+    QueueRowIndex(@NotNull QueueView<String, V> queueView,
+                  @NotNull Predicate<QueueView.Excerpt<String, V>> filter,
+                  @Nullable Map<String, Long> store,
+                  @NotNull String name) {
+        this.queueView = queueView;
+        this.filter = filter;
+        this.store = store;
+        this.persisting = store != null;
+        this.name = name;
+        load();
+    }
+
+    private void load() {
+        if (store == null)
+            return;
+
+        final Long count = store.get(name + COUNT);
+        final Long lastIndexRead = store.get(name + LAST_INDEX_READ);
+        if (count == null || lastIndexRead == null)
+            return;
+
+        // the queue no longer holds the last message read, so the index is rebuilt from the start
+        if (queueView.getExcerpt(lastIndexRead) == null)
+            return;
+
+        for (long row = 0; row < count; row += CHECKPOINT_INTERVAL) {
+            final Long index = store.get(name + row);
+            if (index == null) {
+                checkpoints.clear();
+                return;
+            }
+            checkpoints.put(row, index);
+        }
+        this.count = count;
+        this.lastIndexRead = lastIndexRead;
+    }
+
+    /**
+     * @param row the row number, from 0
+     * @return the checkpoint at or before {@code row}, as its row number and the queue index of
+     * that row, or {@code null} if the index has not reached the first matching row
+     */
+    @Nullable
+    Map.Entry<Long, Long> floorCheckpoint(long row) {
+        return checkpoints.floorEntry(row);
+    }
+
+    /**
+     * @return the number of rows in the queue matching the filter, while a large queue is first
+     * indexed in the background this is the number of rows indexed so far
+     */
+    long rowCount() {
+        // count a message just published, but leave a large backlog to the background
+        catchUp(MAX_READ_PER_ACTION);
+        return count;
+    }
+
+    /**
+     * indexes up to {@code maxRead} of the messages appended to the queue since the last call
+     *
+     * @return {@code true} if any messages were read
+     */
+    private boolean catchUp(int maxRead) {
+        lock.lock();
+        try {
+            if (isClosed)
+                return false;
+
+            int read = 0;
+            long count = this.count;
+            for (QueueView.Excerpt<String, V> excerpt = first(); excerpt != null;
+                 excerpt = queueView.getExcerpt("")) {
+
+                if (filter.test(excerpt)) {
+                    if (count % CHECKPOINT_INTERVAL == 0)
+                        checkpoint(count, excerpt.index());
+                    count++;
+                }
+                lastIndexRead = excerpt.index();
+
+                if (++read >= maxRead)
+                    break;
+            }
+
+            if (read > 0) {
+                this.count = count;
+                persist(name + COUNT, count);
+                persist(name + LAST_INDEX_READ, lastIndexRead);
+            }
+            return read > 0;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the first message not yet read, the tailer used is shared by the readers of the
+     * queue on this thread, so it is moved back to the last message read first
+     */
+    @Nullable
+    private QueueView.Excerpt<String, V> first() {
+        if (lastIndexRead == -1)
+            return queueView.getExcerpt(0);
+        return queueView.getExcerpt(lastIndexRead) == null ? null : queueView.getExcerpt("");
+    }
+
+    private void checkpoint(long row, long index) {
+        checkpoints.put(row, index);
+        persist(name + row, index);
+    }
+
+    private void persist(@NotNull String key, long value) {
+        if (!persisting)
+            return;
+        try {
+            store.put(key, value);
+        } catch (IllegalStateException e) {
+            // the store is full, the index is still kept in memory
+            Jvm.warn().on(QueueRowIndex.class, "Unable to persist the row index " + name, e);
+            persisting = false;
+        }
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        if (isClosed)
+            throw new InvalidEventHandlerException();
+
+        // a row count is already catching up
+        return !lock.isLocked() && catchUp(MAX_READ_PER_ACTION);
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MEDIUM;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            isClosed = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * closes this index and removes it from the store, so the space is free for other filters
+     */
+    void closeAndDelete() {
+        lock.lock();
+        try {
+            isClosed = true;
+            if (store == null)
+                return;
+            store.remove(name + COUNT);
+            store.remove(name + LAST_INDEX_READ);
+            // a checkpoint can be persisted ahead of the count
+            for (long row = 0; row <= count; row += CHECKPOINT_INTERVAL)
+                store.remove(name + row);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package net.openhft.chronicle.engine.queue;
 
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.threads.EventLoop;
 import net.openhft.chronicle.engine.api.column.ChronicleQueueRow;
 import net.openhft.chronicle.engine.api.column.ClosableIterator;
 import net.openhft.chronicle.engine.api.column.Column;
@@ -10,6 +13,8 @@ import net.openhft.chronicle.engine.api.tree.RequestContext;
 import net.openhft.chronicle.engine.map.ObjectSubscription;
 import net.openhft.chronicle.engine.map.VanillaMapView;
 import net.openhft.chronicle.engine.tree.QueueView;
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.ChronicleMapBuilder;
 import net.openhft.chronicle.queue.ExcerptTailer;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.wire.DocumentContext;
@@ -19,9 +24,10 @@ import net.openhft.chronicle.wire.Wires;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.function.Predicate;
 import java.util.stream.StreamSupport;
 
@@ -33,16 +39,34 @@ import static net.openhft.chronicle.wire.Wires.fieldInfos;
 /**
  * @author Rob Austin.
  */
-public class QueueWrappingColumnView<K, V> implements QueueColumnView {
+public class QueueWrappingColumnView<K, V> implements QueueColumnView, Closeable {
+
+    // the number of filters whose rows are indexed
+    private static final int MAX_ROW_INDEXES = Integer.getInteger("columnView.maxRowIndexes", 8);
+    private static final long ROW_INDEX_ENTRIES = Long.getLong("columnView.rowIndexEntries", 1 << 20);
 
     private final Asset asset;
     @NotNull
     private final QueueView<String, V> queueView;
     private final Class<?> messageClass;
+    // the row index of each filter recently used
     @NotNull
-    Map<List<MarshableFilter>, NavigableMap<Long, ChronicleQueueRow>> indexCache = new ConcurrentHashMap<>();
+    private final Map<List<MarshableFilter>, QueueRowIndex<V>> rowIndexes =
+            new LinkedHashMap<List<MarshableFilter>, QueueRowIndex<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<MarshableFilter>, QueueRowIndex<V>> eldest) {
+                    if (size() <= MAX_ROW_INDEXES)
+                        return false;
+                    // the store is shared by every filter, so an evicted filter gives up its entries
+                    eldest.getValue().closeAndDelete();
+                    return true;
+                }
+            };
+    @Nullable
+    private ChronicleMap<String, Long> rowIndexStore;
     @Nullable
     private ArrayList<String> columnNames = null;
+    private boolean isClosed;
 
     public QueueWrappingColumnView(
             RequestContext requestContext,
@@ -84,35 +108,89 @@ public class QueueWrappingColumnView<K, V> implements QueueColumnView {
 
     @NotNull
     private ClosableIterator<ChronicleQueueRow> iterator(@NotNull final List<MarshableFilter> filters, long fromSequenceNumber) {
-        long count = 0;
-        final NavigableMap<Long, ChronicleQueueRow> map = indexCache.computeIfAbsent(filters, k -> new ConcurrentSkipListMap<>());
-        final Map.Entry<Long, ChronicleQueueRow> longChronicleQueueRowEntry = map.floorEntry(fromSequenceNumber);
+        // start from the nearest checkpoint, rather than the start of the queue
+        @Nullable final Map.Entry<Long, Long> checkpoint = rowIndex(filters).floorCheckpoint(fromSequenceNumber);
 
-        final long index0;
-
-        if (longChronicleQueueRowEntry != null) {
-            ChronicleQueueRow value = longChronicleQueueRowEntry.getValue();
-            count = value.seqNumber();
-            index0 = longChronicleQueueRowEntry.getValue().index();
-        } else
-            index0 = 0;
+        long count = checkpoint == null ? 0 : checkpoint.getKey();
+        final long index0 = checkpoint == null ? 0 : checkpoint.getValue();
 
         @NotNull final ClosableIterator<ChronicleQueueRow> result = toIterator(filters, index0);
-
-        @Nullable ChronicleQueueRow r = null;
         while (count < fromSequenceNumber && result.hasNext()) {
-            r = result.next();
+            result.next();
             count++;
-            r.seqNumber(count);
-            if (r.seqNumber() % 1024 == 0)
-                map.put(count, r);
+        }
+
+        return result;
+    }
 
+    /**
+     * @return the index of the rows matching {@code filters}, which is built in the background
+     */
+    @NotNull
+    private synchronized QueueRowIndex<V> rowIndex(@NotNull final List<MarshableFilter> filters) {
+        QueueRowIndex<V> rowIndex = rowIndexes.get(filters);
+        if (rowIndex != null)
+            return rowIndex;
+
+        if (isClosed) {
+            // nothing is indexed once closed
+            rowIndex = new QueueRowIndex<>(queueView, filter(filters), null, "");
+            rowIndex.close();
+            return rowIndex;
         }
 
-        if (longChronicleQueueRowEntry == null && r != null)
-            map.put(r.seqNumber(), r);
+        @NotNull final List<MarshableFilter> key = new ArrayList<>(filters);
+        @NotNull final String name = UUID.nameUUIDFromBytes(
+                key.toString().getBytes(StandardCharsets.UTF_8)) + "/";
+        rowIndex = new QueueRowIndex<>(queueView, filter(key), rowIndexStore(), name);
+        rowIndexes.put(key, rowIndex);
 
-        return result;
+        @Nullable final EventLoop eventLoop = asset.findOrCreateView(EventLoop.class);
+        if (eventLoop != null)
+            eventLoop.addHandler(rowIndex);
+        return rowIndex;
+    }
+
+    /**
+     * @return the map the row indexes are persisted to, alongside the queue, or {@code null} if
+     * the queue is not held in a directory
+     */
+    @Nullable
+    private ChronicleMap<String, Long> rowIndexStore() {
+        assert Thread.holdsLock(this);
+        if (rowIndexStore != null)
+            return rowIndexStore;
+        final Object underlying = queueView.underlying();
+        if (!(underlying instanceof SingleChronicleQueue))
+            return null;
+
+        @NotNull final File file = new File(((SingleChronicleQueue) underlying).file(), "column-row-index.cm");
+        try {
+            rowIndexStore = ChronicleMapBuilder.of(String.class, Long.class)
+                    .entries(ROW_INDEX_ENTRIES)
+                    .putReturnsNull(true)
+                    .createPersistedTo(file);
+        } catch (IOException e) {
+            throw new IORuntimeException("Could not access " + file, e);
+        }
+        return rowIndexStore;
+    }
+
+    /**
+     * stops indexing the rows of each filter, and closes the store they are persisted to
+     */
+    @Override
+    public synchronized void close() {
+        if (isClosed)
+            return;
+        isClosed = true;
+        for (@NotNull QueueRowIndex<V> rowIndex : rowIndexes.values())
+            rowIndex.close();
+        rowIndexes.clear();
+        if (rowIndexStore != null) {
+            rowIndexStore.close();
+            rowIndexStore = null;
+        }
     }
 
     @NotNull
@@ -289,6 +367,10 @@ public class QueueWrappingColumnView<K, V> implements QueueColumnView {
 
         return excerpt -> {
 
+            // a row is not shown for a message which could not be read
+            if (excerpt.message() == null)
+                return false;
+
             if (filters == null || filters.isEmpty())
                 return true;
 
@@ -368,45 +450,7 @@ public class QueueWrappingColumnView<K, V> implements QueueColumnView {
             return count0;
         }
 
-        final NavigableMap<Long, ChronicleQueueRow> map = indexCache.computeIfAbsent(filters.marshableFilters, k
-                -> new ConcurrentSkipListMap<>());
-
-        Iterator<ChronicleQueueRow> iterator;
-
-        long count = 0;
-        if (map != null) {
-            final Map.Entry<Long, ChronicleQueueRow> last = map.lastEntry();
-            if (last == null) {
-                iterator = iterator(filters);
-            } else {
-                final ChronicleQueueRow value = last.getValue();
-                count = value.seqNumber();
-                filters.fromIndex = last.getValue().index();
-                iterator = iterator(filters);
-            }
-        } else
-            iterator = iterator(filters);
-
-        @Nullable ChronicleQueueRow row = null;
-
-        boolean hasData = false;
-        while (iterator.hasNext()) {
-            row = iterator.next();
-            if (row == null)
-                continue;
-            count++;
-            row.seqNumber(count);
-
-            hasData = true;
-            if (row.seqNumber() % 1024 == 0)
-                map.put(count, row);
-        }
-
-        // ensure last item written to map
-        if (hasData)
-            map.put(count, row);
-
-        return (int) count;
+        return (int) rowIndex(filters.marshableFilters).rowCount();
     }
 
 }
\ No newline at end of file
@@ -50,7 +50,6 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalTime;
 import java.util.*;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
@@ -153,6 +152,8 @@ public class EngineWireHandler extends WireTcpHandler<EngineWireNetworkContext>
     private long cid;
     @Nullable
     private HostIdentifier hostIdentifier;
+    @Nullable
+    private UserInteractions userInteractions;
 
     public EngineWireHandler() {
         this.mapWireHandler = new MapWireHandler<>(this);
@@ -196,6 +197,10 @@ public class EngineWireHandler extends WireTcpHandler<EngineWireNetworkContext>
 
         this.sessionDetails = nc.sessionDetails();
         this.rootAsset = nc.rootAsset();
+
+        this.userInteractions = new UserInteractions(sessionDetails, this::getMonitoringMap,
+                UserInteractions.PUBLISH_PERIOD_MS);
+        this.eventLoop.addHandler(userInteractions);
     }
 
     @Override
@@ -374,17 +379,8 @@ public class EngineWireHandler extends WireTcpHandler<EngineWireNetworkContext>
                     logBufferToStandardOut(prevLogMessage.append(currentLogMessage));
                 }
 
-                @Nullable Map<String, UserStat> userMonitoringMap = getMonitoringMap();
-                if (userMonitoringMap != null) {
-                    UserStat userStat = userMonitoringMap.get(sessionDetails.userId());
-                    if (userStat == null) {
-                        throw new AssertionError("User should have been logged in");
-                    }
-                    //Use timeInMillis
-                    userStat.setRecentInteraction(LocalTime.now());
-                    userStat.setTotalInteractions(userStat.getTotalInteractions() + 1);
-                    userMonitoringMap.put(sessionDetails.userId(), userStat);
-                }
+                if (userInteractions != null)
+                    userInteractions.onInteraction();
 
                 if (wireAdapter != null) {
 
@@ -593,6 +589,8 @@ public class EngineWireHandler extends WireTcpHandler<EngineWireNetworkContext>
     @Override
     public void close() {
         onEndOfConnection(false);
+        if (userInteractions != null)
+            userInteractions.close();
         publisher().close();
         super.close();
     }
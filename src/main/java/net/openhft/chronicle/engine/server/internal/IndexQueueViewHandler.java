@@ -40,6 +40,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
+import static net.openhft.chronicle.engine.server.internal.IndexQueueViewHandler.EventId.batch;
 import static net.openhft.chronicle.engine.server.internal.IndexQueueViewHandler.EventId.registerSubscriber;
 import static net.openhft.chronicle.engine.server.internal.IndexQueueViewHandler.EventId.unregisterSubscriber;
 import static net.openhft.chronicle.network.connection.CoreFields.reply;
@@ -51,6 +52,8 @@ import static net.openhft.chronicle.network.connection.CoreFields.tid;
 public class IndexQueueViewHandler<V extends Marshallable> extends AbstractHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(IndexQueueViewHandler.class);
+    // the size at which a batch of values is sent, even if it has less than batchSize values
+    private static final int MAX_BATCH_BYTES = Integer.getInteger("indexQueueView.maxBatchBytes", 64 << 10);
     private final StringBuilder eventName = new StringBuilder();
     private final Map<Long, ConsumingSubscriber<IndexedValue<V>>> tidToListener = new ConcurrentHashMap<>();
     private Asset contextAsset;
@@ -70,6 +73,9 @@ public class IndexQueueViewHandler<V extends Marshallable> extends AbstractHandl
                     return;
                 }
 
+                @Nullable final VanillaIndexQuery<V> query = valueIn.typedMarshallable();
+                final int batchSize = query.batchSize();
+
                 @NotNull final ConsumingSubscriber<IndexedValue<V>> listener = new ConsumingSubscriber<IndexedValue<V>>() {
 
                     volatile WireOutConsumer wireOutConsumer;
@@ -110,6 +116,12 @@ public class IndexQueueViewHandler<V extends Marshallable> extends AbstractHandl
                      */
                     @Override
                     public void addSupplier(@NotNull Supplier<Marshallable> supplier) {
+                        if (batchSize > 1) {
+                            wireOutConsumer = wireOut -> writeBatch(wireOut, supplier);
+                            publisher.addWireConsumer(wireOutConsumer);
+                            return;
+                        }
+
                         wireOutConsumer = wireOut -> {
 
                             Marshallable marshallable = supplier.get();
@@ -127,6 +139,48 @@ public class IndexQueueViewHandler<V extends Marshallable> extends AbstractHandl
                         publisher.addWireConsumer(wireOutConsumer);
                     }
 
+                    /**
+                     * writes up to {@code batchSize} values into a single document, the batch is
+                     * cut short once the document reaches {@code MAX_BATCH_BYTES} or the supplier
+                     * has no more data
+                     */
+                    private void writeBatch(@NotNull WireOut wireOut,
+                                            @NotNull Supplier<Marshallable> supplier) {
+                        final Marshallable first = supplier.get();
+                        if (first == null)
+                            return;
+
+                        if (publisher.isClosed())
+                            return;
+
+                        @NotNull final RuntimeException[] failed = {null};
+                        wireOut.writeDocument(true, wire -> wire.writeEventName(tid).int64(inputTid));
+                        wireOut.writeNotCompleteDocument(false, wire -> {
+                            final long start = wire.bytes().writePosition();
+                            wire.writeEventName(batch).sequence(out -> {
+                                out.typedMarshallable(first);
+                                for (int i = 1; i < batchSize; i++) {
+                                    if (wire.bytes().writePosition() - start >= MAX_BATCH_BYTES)
+                                        return;
+                                    final Marshallable next;
+                                    try {
+                                        next = supplier.get();
+                                    } catch (RuntimeException e) {
+                                        // complete the document before the error is passed on
+                                        failed[0] = e;
+                                        return;
+                                    }
+                                    if (next == null)
+                                        return;
+                                    out.typedMarshallable(next);
+                                }
+                            });
+                        });
+
+                        if (failed[0] != null)
+                            throw failed[0];
+                    }
+
                     @Override
                     public void close() {
                         publisher.removeBytesConsumer(wireOutConsumer);
@@ -135,8 +189,6 @@ public class IndexQueueViewHandler<V extends Marshallable> extends AbstractHandl
 
                 tidToListener.put(inputTid, listener);
 
-                @Nullable final VanillaIndexQuery<V> query = valueIn.typedMarshallable();
-
                 if (query.select().isEmpty() || query.valueClass() == null) {
                     Jvm.debug().on(getClass(), "received empty query");
                     return;
@@ -207,7 +259,8 @@ public class IndexQueueViewHandler<V extends Marshallable> extends AbstractHandl
     public enum EventId implements ParameterizeWireKey {
         registerSubscriber(Params.subscribe),
         unregisterSubscriber(),
-        onEndOfSubscription;
+        onEndOfSubscription,
+        batch;
 
         private final WireKey[] params;
 
@@ -36,6 +36,10 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
@@ -119,13 +123,38 @@ public class MapWireHandler<K, V> extends AbstractHandler {
                     }
 
                     if (putAll.contentEquals(eventName)) {
-                        valueIn.sequence(map, (m, v) -> {
+                        @NotNull final Map<K, V> entries = new LinkedHashMap<>();
+                        valueIn.sequence(entries, (m, v) -> {
                             while (v.hasNextSequenceItem()) {
-                                valueIn.marshallable(wire -> m.put(
-                                        wireToK.apply(wire.read(put.params()[0])),
-                                        wireToV.apply(wire.read(put.params()[1]))));
+                                v.marshallable(wire -> {
+                                    final K key = wireToK.apply(wire.read(put.params()[0]));
+                                    final V value = wireToV.apply(wire.read(put.params()[1]));
+                                    nullCheck(key);
+                                    nullCheck(value);
+                                    m.put(key, value);
+                                });
                             }
                         });
+                        map.putAll(entries);
+                        outWire.writeEventName(reply).int64(entries.size());
+                        return;
+                    }
+
+                    if (getAll.contentEquals(eventName)) {
+                        @NotNull final List<K> keys = keysFromWire(valueIn);
+                        @NotNull final Map<K, V> entries = map.getAll(keys);
+                        // the values in the order of the keys, null for a key not present
+                        outWire.writeEventName(reply).sequence(out -> {
+                            for (K key : keys)
+                                vToWire.accept(out, entries.get(key));
+                        });
+                        return;
+                    }
+
+                    if (removeAll.contentEquals(eventName)) {
+                        @NotNull final List<K> keys = keysFromWire(valueIn);
+                        map.removeAll(keys);
+                        outWire.writeEventName(reply).int64(keys.size());
                         return;
                     }
 
@@ -306,6 +335,19 @@ public class MapWireHandler<K, V> extends AbstractHandler {
         }
     };
 
+    @NotNull
+    private List<K> keysFromWire(@NotNull ValueIn valueIn) {
+        @NotNull final List<K> keys = new ArrayList<>();
+        valueIn.sequence(keys, (k, v) -> {
+            while (v.hasNextSequenceItem()) {
+                final K key = wireToK.apply(v);
+                nullCheck(key);
+                k.add(key);
+            }
+        });
+        return keys;
+    }
+
     public MapWireHandler(CspManager cspManager) {
         this.cspManager = cspManager;
     }
@@ -381,6 +423,8 @@ public class MapWireHandler<K, V> extends AbstractHandler {
         removeWithValue(key, value),
         toString,
         putAll,
+        getAll,
+        removeAll,
         hashCode,
         createChannel,
         entrySetRestricted,
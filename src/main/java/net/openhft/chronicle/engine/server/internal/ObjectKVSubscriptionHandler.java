@@ -18,6 +18,7 @@
 package net.openhft.chronicle.engine.server.internal;
 
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.engine.api.pubsub.SharedMessage;
 import net.openhft.chronicle.engine.api.pubsub.Subscriber;
 import net.openhft.chronicle.engine.api.pubsub.SubscriptionCollection;
 import net.openhft.chronicle.engine.api.pubsub.TopicSubscriber;
@@ -56,19 +57,29 @@ public final class ObjectKVSubscriptionHandler extends SubscriptionHandler<Subsc
                     return;
                 }
 
-                @NotNull final TopicSubscriber listener = new TopicSubscriber() {
+                @NotNull final TopicSubscriber listener = new SharedMessage.SharingTopicSubscriber() {
                     volatile boolean subscriptionEnded;
 
                     @Override
                     public void onMessage(final Object topic, final Object message) {
+                        publish(topic, wire -> wire.writeEventName(reply)
+                                .marshallable(m -> {
+                                    m.write(() -> "topic").object(topic);
+                                    m.write(() -> "message").object(message);
+                                }));
+                    }
+
+                    @Override
+                    public void onMessage(final Object topic, final Object message,
+                                          @NotNull final SharedMessage sharedMessage) {
+                        publish(topic, wire -> sharedMessage.write(wire, reply));
+                    }
+
+                    private void publish(final Object topic, @NotNull final WriteMarshallable message) {
                         synchronized (publisher) {
                             publisher.put(topic, publish -> {
                                 publish.writeDocument(true, wire -> wire.writeEventName(tid).int64(inputTid));
-                                publish.writeNotCompleteDocument(false, wire -> wire.writeEventName(reply)
-                                        .marshallable(m -> {
-                                            m.write(() -> "topic").object(topic);
-                                            m.write(() -> "message").object(message);
-                                        }));
+                                publish.writeNotCompleteDocument(false, message);
                             });
                         }
                     }
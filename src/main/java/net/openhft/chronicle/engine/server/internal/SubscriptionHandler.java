@@ -20,6 +20,7 @@ package net.openhft.chronicle.engine.server.internal;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.engine.api.map.MapEvent;
 import net.openhft.chronicle.engine.api.pubsub.InvalidSubscriberException;
+import net.openhft.chronicle.engine.api.pubsub.SharedMessage;
 import net.openhft.chronicle.engine.api.pubsub.Subscriber;
 import net.openhft.chronicle.engine.api.pubsub.SubscriptionCollection;
 import net.openhft.chronicle.engine.api.tree.Asset;
@@ -158,7 +159,7 @@ public class SubscriptionHandler<T extends SubscriptionCollection> extends Abstr
         }
     }
 
-    class LocalSubscriber implements Subscriber<Object> {
+    class LocalSubscriber implements SharedMessage.SharingSubscriber<Object> {
         private final Long tid;
         private final WireOutPublisher publisher;
         volatile boolean subscriptionEnded;
@@ -170,12 +171,21 @@ public class SubscriptionHandler<T extends SubscriptionCollection> extends Abstr
 
         @Override
         public void onMessage(Object e) throws InvalidSubscriberException {
+            publish(e, wire -> wire.write(reply).object(e));
+        }
+
+        @Override
+        public void onMessage(Object e, @NotNull SharedMessage sharedMessage) {
+            publish(e, wire -> sharedMessage.write(wire, reply));
+        }
+
+        private void publish(Object e, @NotNull WriteMarshallable message) {
             if (subscriptionEnded)
                 return;
 
             @NotNull final WriteMarshallable event = p -> {
                 p.writeDocument(true, wire -> wire.writeEventName(CoreFields.tid).int64(tid));
-                p.writeNotCompleteDocument(false, wire -> wire.write(reply).object(e));
+                p.writeNotCompleteDocument(false, message);
             };
 
             final Object key = (e instanceof MapEvent) ? ((MapEvent) e).getKey() : e;
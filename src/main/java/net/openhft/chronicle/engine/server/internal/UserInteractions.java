@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.server.internal;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.engine.cfg.UserStat;
+import net.openhft.chronicle.network.api.session.SessionDetailsProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * counts the interactions of one connection, and adds them to the {@link UserStat} of its user
+ * every {@code userStat.publishPeriodMs}, rather than updating the user monitoring map on every
+ * message.
+ */
+class UserInteractions implements EventHandler, Closeable {
+
+    static final long PUBLISH_PERIOD_MS = Long.getLong("userStat.publishPeriodMs", 1000);
+
+    private final LongAdder interactions = new LongAdder();
+    @NotNull
+    private final SessionDetailsProvider sessionDetails;
+    @NotNull
+    private final Supplier<Map<String, UserStat>> monitoringMap;
+    private final long publishPeriodMs;
+    private volatile long lastInteractionMillis;
+    private volatile boolean isClosed;
+    private long nextPublishMillis;
+
+    /**
+     * @param sessionDetails  the session of the connection
+     * @param monitoringMap   supplies the user monitoring map, or null if there is none
+     * @param publishPeriodMs how often the interactions are published
+     */
+    UserInteractions(@NotNull SessionDetailsProvider sessionDetails,
+                     @NotNull Supplier<Map<String, UserStat>> monitoringMap,
+                     long publishPeriodMs) {
+        this.sessionDetails = sessionDetails;
+        this.monitoringMap = monitoringMap;
+        this.publishPeriodMs = publishPeriodMs;
+    }
+
+    /**
+     * called on every data message of the connection
+     */
+    void onInteraction() {
+        interactions.increment();
+        lastInteractionMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        if (isClosed) {
+            // publish what was counted before the connection closed
+            publish();
+            throw new InvalidEventHandlerException();
+        }
+
+        final long now = System.currentTimeMillis();
+        if (now < nextPublishMillis)
+            return false;
+        nextPublishMillis = now + publishPeriodMs;
+        return publish();
+    }
+
+    /**
+     * @return true if the interactions were published
+     */
+    boolean publish() {
+        if (interactions.sum() == 0)
+            return false;
+
+        @Nullable final Map<String, UserStat> map = monitoringMap.get();
+        @Nullable final String userId = sessionDetails.userId();
+        if (map == null || userId == null)
+            return false;
+
+        @Nullable final UserStat userStat = map.get(userId);
+        if (userStat == null) {
+            Jvm.debug().on(getClass(), "User " + userId + " should have been logged in");
+            return false;
+        }
+
+        final long count = interactions.sumThenReset();
+        userStat.setRecentInteraction(Instant.ofEpochMilli(lastInteractionMillis)
+                .atZone(ZoneId.systemDefault()).toLocalTime());
+        userStat.setTotalInteractions(userStat.getTotalInteractions() + (int) count);
+        map.put(userId, userStat);
+        return true;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+    }
+}
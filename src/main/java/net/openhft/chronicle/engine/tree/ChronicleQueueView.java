@@ -98,6 +98,10 @@ public class ChronicleQueueView<T, M> implements QueueView<T, M>, MapView<T, M>,
     private QueueConfig queueConfig;
 
     private volatile MapView<T, M> mapView;
+    @Nullable
+    private final TopicIndex topicIndex;
+    @Nullable
+    private volatile QueueDemultiplexer<T, M> demultiplexer;
 
     public ChronicleQueueView(@NotNull RequestContext context,
                               @NotNull Asset asset) throws IOException {
@@ -130,6 +134,15 @@ public class ChronicleQueueView<T, M> implements QueueView<T, M>, MapView<T, M>,
 
         EventLoop eventLoop = asset.findOrCreateView(EventLoop.class);
         assert eventLoop != null;
+
+        // indexed from when the view is created, so a lookup only reads what was appended since
+        if (queueConfig.topicIndexEntries() > 0) {
+            topicIndex = new TopicIndex(chronicleQueue, queueConfig.topicIndexEntries());
+            eventLoop.addHandler(topicIndex);
+        } else {
+            topicIndex = null;
+        }
+
         eventLoop.addHandler(new EventHandler() {
             @Override
             public boolean action() throws InvalidEventHandlerException, InterruptedException {
@@ -260,6 +273,30 @@ public class ChronicleQueueView<T, M> implements QueueView<T, M>, MapView<T, M>,
 
     }
 
+    /**
+     * @return reads the queue once on behalf of all the topic subscribers of the queue
+     */
+    @NotNull
+    public QueueDemultiplexer<T, M> demultiplexer() {
+        final QueueDemultiplexer<T, M> demultiplexer = this.demultiplexer;
+
+        if (demultiplexer != null)
+            return demultiplexer;
+
+        synchronized (this) {
+            QueueDemultiplexer<T, M> demultiplexer0 = this.demultiplexer;
+            if (demultiplexer0 != null)
+                return demultiplexer0;
+
+            demultiplexer0 = new QueueDemultiplexer<>(this);
+            @Nullable final EventLoop eventLoop = asset.findOrCreateView(EventLoop.class);
+            assert eventLoop != null;
+            eventLoop.addHandler(demultiplexer0);
+            this.demultiplexer = demultiplexer0;
+            return demultiplexer0;
+        }
+    }
+
     @NotNull
     public RollingChronicleQueue chronicleQueue() {
         return chronicleQueue;
@@ -588,6 +625,50 @@ public class ChronicleQueueView<T, M> implements QueueView<T, M>, MapView<T, M>,
         }
     }
 
+    /**
+     * if the queue has a topic index, see {@link QueueConfig#topicIndexEntries()}, this does not
+     * scan the queue, the index of the latest message of each topic is maintained in the
+     * background as the queue is appended to. Otherwise, or until the index has caught up with
+     * the end of the queue, the queue is scanned.
+     *
+     * @param topic the topic
+     * @return the latest excerpt published to this {@code topic}, or {@code null} if there is none
+     */
+    @Nullable
+    public Excerpt<T, M> getLatestExcerpt(@NotNull T topic) {
+        final String topicName = topic.toString();
+        final long index = topicIndex == null
+                ? TopicIndex.NOT_CAUGHT_UP
+                : topicIndex.index(topicName);
+        if (index == TopicIndex.NOT_CAUGHT_UP)
+            return scanForLatestExcerpt(topicName);
+        return index == -1 ? null : getExcerpt(index);
+    }
+
+    boolean hasTopicIndex() {
+        return topicIndex != null;
+    }
+
+    @Nullable
+    private Excerpt<T, M> scanForLatestExcerpt(@NotNull String topic) {
+        @NotNull final ExcerptTailer tailer = chronicleQueue.createTailer();
+        @NotNull final StringBuilder eventName = new StringBuilder();
+        long index = -1;
+        for (; ; ) {
+            try (DocumentContext dc = tailer.readingDocument()) {
+                if (!dc.isPresent())
+                    break;
+                if (!dc.isData())
+                    continue;
+                eventName.setLength(0);
+                dc.wire().readEventName(eventName);
+                if (topic.contentEquals(eventName))
+                    index = dc.index();
+            }
+        }
+        return index == -1 ? null : getExcerpt(index);
+    }
+
     @Override
     public void set(T key, M element) {
         throw new UnsupportedOperationException("todo");
@@ -691,6 +772,10 @@ public class ChronicleQueueView<T, M> implements QueueView<T, M>, MapView<T, M>,
     @Override
     public void close() {
 
+        @Nullable final QueueDemultiplexer<T, M> demultiplexer = this.demultiplexer;
+        if (demultiplexer != null)
+            demultiplexer.close();
+        Closeable.closeQuietly(topicIndex);
         @NotNull File file = chronicleQueue.file();
         chronicleQueue.close();
         if (dontPersist) {
@@ -871,9 +956,9 @@ public class ChronicleQueueView<T, M> implements QueueView<T, M>, MapView<T, M>,
     private static class QueueViewAsMapView<K, V> extends VanillaMapView<K, V> {
 
         @NotNull
-        private final QueueView<K, V> queueView;
+        private final ChronicleQueueView<K, V> queueView;
 
-        QueueViewAsMapView(@NotNull final QueueView<K, V> queueView,
+        QueueViewAsMapView(@NotNull final ChronicleQueueView<K, V> queueView,
                            @NotNull RequestContext context,
                            @NotNull Asset asset) {
             super(context, asset, new VanillaKeyValueStore<>(context, asset));
@@ -888,6 +973,25 @@ public class ChronicleQueueView<T, M> implements QueueView<T, M>, MapView<T, M>,
 
         }
 
+        /**
+         * if the queue has a topic index, reads the latest message of the topic from the queue,
+         * so the value is available before the topic subscription has replayed the queue
+         */
+        @Nullable
+        @Override
+        public V get(Object key) {
+            if (!queueView.hasTopicIndex())
+                return super.get(key);
+            checkKey(key);
+            @Nullable final Excerpt<K, V> excerpt = queueView.getLatestExcerpt((K) key);
+            return excerpt == null ? null : excerpt.message();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return queueView.hasTopicIndex() ? get(key) != null : super.containsKey(key);
+        }
+
         @Nullable
         @Override
         public V put(@NotNull K key, @NotNull V value) {
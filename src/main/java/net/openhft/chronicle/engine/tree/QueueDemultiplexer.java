@@ -0,0 +1,278 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.tree;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.engine.api.pubsub.InvalidSubscriberException;
+import net.openhft.chronicle.engine.api.pubsub.TopicSubscriber;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Reads the messages of a {@link ChronicleQueueView} once, with a single tailer shared by all the
+ * subscribers of the queue, and passes each message to the subscribers of its topic, found by
+ * looking up the topic rather than by each subscriber checking every message.
+ * <p>
+ * A subscriber receives the queue from its start. A subscriber that registers after the shared
+ * tailer has started reads the queue with its own tailer, until it has caught up with the shared
+ * tailer, at which point it joins the subscribers of the shared tailer. All of this is done on the
+ * event loop, by this one handler.
+ *
+ * @author Rob Austin.
+ */
+public class QueueDemultiplexer<T, M> implements EventHandler {
+
+    // the time spent reading messages, before giving other handlers a turn
+    private static final long TIME_SLICE_NS = 5_000;
+
+    @NotNull
+    private final ChronicleQueueView<T, M> queueView;
+    @NotNull
+    private final QueueView.Tailer<T, M> tailer;
+    // the subscribers to every topic
+    private final List<Subscription<T, M>> allTopics = new CopyOnWriteArrayList<>();
+    // the subscribers by topic
+    private final Map<String, List<Subscription<T, M>>> byTopic = new ConcurrentHashMap<>();
+    // the subscriptions by owner and topic, as an owner may subscribe to more than one topic
+    private final Map<List<Object>, Subscription<T, M>> byOwner = new ConcurrentHashMap<>();
+    private final Queue<Subscription<T, M>> registered = new ConcurrentLinkedQueue<>();
+    // only accessed by the event loop
+    private final List<Subscription<T, M>> catchingUp = new ArrayList<>();
+    // the index of the last message read by the shared tailer, only accessed by the event loop
+    private long lastIndex = -1;
+    private volatile boolean isClosed;
+
+    QueueDemultiplexer(@NotNull ChronicleQueueView<T, M> queueView) {
+        this.queueView = queueView;
+        this.tailer = queueView.tailer();
+    }
+
+    @NotNull
+    private static List<Object> key(@NotNull Object owner, @Nullable String topic) {
+        return Arrays.asList(owner, topic);
+    }
+
+    /**
+     * @param owner      used, with the topic, to unregister the subscriber
+     * @param topic      the topic to receive the messages of, or {@code null} for every topic
+     * @param subscriber receives the messages, it is unregistered if it throws an exception
+     */
+    public void registerSubscriber(@NotNull Object owner,
+                                   @Nullable String topic,
+                                   @NotNull TopicSubscriber<T, M> subscriber) {
+        @NotNull final Subscription<T, M> subscription = new Subscription<>(key(owner, topic),
+                topic, subscriber);
+        @Nullable final Subscription<T, M> replaced = byOwner.put(subscription.key, subscription);
+        if (replaced != null)
+            remove(replaced);
+        registered.add(subscription);
+    }
+
+    /**
+     * @param owner as registered
+     * @param topic as registered
+     */
+    public void unregisterSubscriber(@NotNull Object owner, @Nullable String topic) {
+        @Nullable final Subscription<T, M> subscription = byOwner.remove(key(owner, topic));
+        if (subscription != null)
+            remove(subscription);
+    }
+
+    private void remove(@NotNull Subscription<T, M> subscription) {
+        subscription.isClosed = true;
+        if (subscription.topic == null) {
+            allTopics.remove(subscription);
+        } else {
+            // the topic is removed with its last subscriber, so it is no longer looked up
+            byTopic.computeIfPresent(subscription.topic, (topic, subscriptions) -> {
+                subscriptions.remove(subscription);
+                return subscriptions.isEmpty() ? null : subscriptions;
+            });
+        }
+    }
+
+    public int subscriberCount() {
+        return byOwner.size();
+    }
+
+    /**
+     * @return the number of topics with a subscriber which has caught up
+     */
+    int topicCount() {
+        return byTopic.size();
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        if (isClosed)
+            throw new InvalidEventHandlerException();
+
+        boolean busy = false;
+        for (Subscription<T, M> s; (s = registered.poll()) != null; ) {
+            if (s.isClosed)
+                continue;
+            if (lastIndex == -1) {
+                // nothing has been read yet, so there is nothing to catch up on
+                live(s);
+            } else {
+                s.tailer = queueView.tailer();
+                catchingUp.add(s);
+            }
+            busy = true;
+        }
+
+        if (!catchingUp.isEmpty())
+            busy |= catchUp();
+
+        // no need to read the queue, a subscriber registered later catches up with its own tailer
+        if (allTopics.isEmpty() && byTopic.isEmpty())
+            return busy;
+
+        final long start = System.nanoTime();
+        do {
+            @Nullable final QueueView.Excerpt<T, M> excerpt = tailer.read();
+            if (excerpt == null)
+                return busy;
+
+            lastIndex = excerpt.index();
+            @Nullable final T topic = excerpt.topic();
+            dispatch(allTopics, excerpt);
+            if (topic != null) {
+                @Nullable final List<Subscription<T, M>> subscriptions = byTopic.get(topic.toString());
+                if (subscriptions != null)
+                    dispatch(subscriptions, excerpt);
+            }
+            busy = true;
+        } while (System.nanoTime() - start < TIME_SLICE_NS);
+        return busy;
+    }
+
+    /**
+     * reads the queue for each subscriber catching up, until it reaches the message last read by
+     * the shared tailer
+     */
+    private boolean catchUp() {
+        boolean busy = false;
+        final long start = System.nanoTime();
+        for (Iterator<Subscription<T, M>> iterator = catchingUp.iterator(); iterator.hasNext(); ) {
+            @NotNull final Subscription<T, M> s = iterator.next();
+            while (!s.isClosed) {
+                @Nullable final QueueView.Excerpt<T, M> excerpt = s.tailer.read();
+                if (excerpt == null)
+                    break;
+                busy = true;
+                final T topic = excerpt.topic();
+                if ((s.topic == null || (topic != null && s.topic.equals(topic.toString())))
+                        && !s.onMessage(excerpt)) {
+                    discard(s);
+                    break;
+                }
+
+                if (excerpt.index() == lastIndex) {
+                    live(s);
+                    break;
+                }
+                if (System.nanoTime() - start > TIME_SLICE_NS)
+                    return true;
+            }
+            if (s.isClosed || s.tailer == null)
+                iterator.remove();
+        }
+        return busy;
+    }
+
+    private void live(@NotNull Subscription<T, M> s) {
+        s.tailer = null;
+        if (s.isClosed)
+            return;
+        if (s.topic == null) {
+            allTopics.add(s);
+        } else {
+            byTopic.compute(s.topic, (topic, subscriptions) -> {
+                if (subscriptions == null)
+                    subscriptions = new CopyOnWriteArrayList<>();
+                subscriptions.add(s);
+                return subscriptions;
+            });
+        }
+    }
+
+    private void dispatch(@NotNull List<Subscription<T, M>> subscriptions,
+                          @NotNull QueueView.Excerpt<T, M> excerpt) {
+        for (@NotNull Subscription<T, M> s : subscriptions) {
+            // a subscription unregistered while it was going live is removed here
+            if (s.isClosed || !s.onMessage(excerpt))
+                discard(s);
+        }
+    }
+
+    private void discard(@NotNull Subscription<T, M> s) {
+        remove(s);
+        byOwner.remove(s.key, s);
+    }
+
+    void close() {
+        isClosed = true;
+    }
+
+    private static class Subscription<T, M> {
+        @NotNull
+        final List<Object> key;
+        @Nullable
+        final String topic;
+        @NotNull
+        final TopicSubscriber<T, M> subscriber;
+        // reads the queue until the subscriber has caught up, only accessed by the event loop
+        @Nullable
+        QueueView.Tailer<T, M> tailer;
+        volatile boolean isClosed;
+
+        Subscription(@NotNull List<Object> key,
+                     @Nullable String topic,
+                     @NotNull TopicSubscriber<T, M> subscriber) {
+            this.key = key;
+            this.topic = topic;
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * @return {@code false} if the subscriber is no longer valid
+         */
+        boolean onMessage(@NotNull QueueView.Excerpt<T, M> excerpt) {
+            try {
+                subscriber.onMessage(excerpt.topic(), excerpt.message());
+                return true;
+
+            } catch (InvalidSubscriberException e) {
+                isClosed = true;
+
+            } catch (RuntimeException e) {
+                Jvm.warn().on(getClass(), e);
+                isClosed = true;
+            }
+            return false;
+        }
+    }
+}
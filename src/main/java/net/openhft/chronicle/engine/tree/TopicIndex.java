@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.tree;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.ChronicleMapBuilder;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.impl.RollingChronicleQueue;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * maps each topic of a queue to the index of the latest message published to it, so the latest
+ * message of a topic can be read without scanning the queue. The index is built by tailing the
+ * queue in the background, a slice at a time, and is persisted alongside the queue, together with
+ * the last index read, so on restart only the messages appended since are read. It is only kept
+ * for a queue whose {@link net.openhft.chronicle.engine.query.QueueConfig#topicIndexEntries()} is
+ * set.
+ *
+ * @author Rob Austin.
+ */
+class TopicIndex implements EventHandler, Closeable {
+
+    private static final String TOPIC_INDEX = "topic-index";
+    private static final String LAST_INDEX_READ = "lastIndexRead";
+    // the number of messages read between each update of the checkpoint
+    private static final int CHECKPOINT_INTERVAL = 1024;
+    // the most messages read by one action or lookup, so neither holds up the event loop or caller
+    private static final int MAX_READ_PER_ACTION = 4096;
+    /**
+     * returned by {@link #index(String)} until the index has caught up with the end of the queue
+     */
+    static final long NOT_CAUGHT_UP = -2;
+
+    @NotNull
+    private final ChronicleMap<String, Long> topicToIndex;
+    @NotNull
+    private final ChronicleMap<String, Long> checkpointMap;
+    @NotNull
+    private final ExcerptTailer tailer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final StringBuilder topic = new StringBuilder();
+    private long lastIndexRead;
+    private int readSinceCheckpoint;
+    private boolean caughtUp;
+    private volatile boolean isClosed;
+
+    TopicIndex(@NotNull RollingChronicleQueue queue, long entries) {
+        @NotNull final File dir = queue.file();
+        topicToIndex = newMap(new File(dir, TOPIC_INDEX + ".cm"), entries);
+        checkpointMap = newMap(new File(dir, TOPIC_INDEX + "-checkpoint.cm"), 1);
+        tailer = queue.createTailer();
+
+        if (!moveToCheckpoint()) {
+            // the queue no longer holds the checkpoint, so the index is rebuilt from the start
+            topicToIndex.clear();
+            tailer.toStart();
+        }
+    }
+
+    @NotNull
+    private static ChronicleMap<String, Long> newMap(@NotNull File file, long entries) {
+        try {
+            return ChronicleMapBuilder.of(String.class, Long.class)
+                    .entries(entries)
+                    .putReturnsNull(true)
+                    .createPersistedTo(file);
+        } catch (IOException e) {
+            throw new IORuntimeException("Could not access " + file, e);
+        }
+    }
+
+    private boolean moveToCheckpoint() {
+        final Long checkpoint = checkpointMap.get(LAST_INDEX_READ);
+        if (checkpoint == null || checkpoint == 0)
+            return false;
+
+        if (!tailer.moveToIndex(checkpoint))
+            return false;
+
+        // the message at the checkpoint has already been indexed
+        try (DocumentContext dc = tailer.readingDocument()) {
+            if (!dc.isPresent())
+                return false;
+        }
+        lastIndexRead = checkpoint;
+        return true;
+    }
+
+    /**
+     * A lookup reads at most one slice of the messages not yet indexed, so while a large queue is
+     * first indexed, or falls behind, the caller has to find the message another way.
+     *
+     * @param topic the topic
+     * @return the index of the latest message published to this {@code topic}, {@code -1} if none
+     * has been, or {@link #NOT_CAUGHT_UP} if there are messages not yet indexed
+     */
+    long index(@NotNull String topic) {
+        // bring the index up to date, so a message just published is found
+        lock.lock();
+        try {
+            catchUp(MAX_READ_PER_ACTION);
+            if (!caughtUp)
+                return NOT_CAUGHT_UP;
+            final Long index = topicToIndex.get(topic);
+            return index == null ? -1 : index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * indexes the messages appended to the queue since the last call
+     *
+     * @param maxMessages the most messages to read
+     * @return {@code true} if any messages were read
+     */
+    private boolean catchUp(int maxMessages) {
+        lock.lock();
+        try {
+            if (isClosed)
+                return false;
+
+            boolean hasRead = false;
+            caughtUp = false;
+            for (int i = 0; i < maxMessages; i++) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    if (!dc.isPresent()) {
+                        caughtUp = true;
+                        break;
+                    }
+
+                    hasRead = true;
+                    if (!dc.isData())
+                        continue;
+
+                    topic.setLength(0);
+                    dc.wire().readEventName(topic);
+                    if (topic.length() > 0)
+                        topicToIndex.put(topic.toString(), dc.index());
+                    lastIndexRead = dc.index();
+                }
+
+                if (++readSinceCheckpoint >= CHECKPOINT_INTERVAL)
+                    checkpoint();
+            }
+
+            if (readSinceCheckpoint > 0)
+                checkpoint();
+            return hasRead;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkpoint() {
+        checkpointMap.put(LAST_INDEX_READ, lastIndexRead);
+        readSinceCheckpoint = 0;
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        if (isClosed)
+            throw new InvalidEventHandlerException();
+
+        // a lookup is already catching up
+        return !lock.isLocked() && catchUp(MAX_READ_PER_ACTION);
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MEDIUM;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            isClosed = true;
+            Closeable.closeQuietly(topicToIndex);
+            Closeable.closeQuietly(checkpointMap);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
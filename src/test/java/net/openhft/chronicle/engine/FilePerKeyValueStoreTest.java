@@ -17,12 +17,15 @@
 
 package net.openhft.chronicle.engine;
 
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
 import net.openhft.chronicle.core.OS;
 import net.openhft.chronicle.core.threads.ThreadDump;
 import net.openhft.chronicle.engine.api.map.KeyValueStore;
 import net.openhft.chronicle.engine.api.map.MapEvent;
 import net.openhft.chronicle.engine.api.tree.LeafViewFactory;
 import net.openhft.chronicle.engine.map.AuthenticatedKeyValueStore;
+import net.openhft.chronicle.engine.map.FilePerKeyConfig;
 import net.openhft.chronicle.engine.map.FilePerKeyValueStore;
 import net.openhft.chronicle.engine.map.VanillaMapView;
 import net.openhft.chronicle.engine.map.VanillaStringStringKeyValueStore;
@@ -32,15 +35,20 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.junit.*;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static net.openhft.chronicle.core.Jvm.pause;
 import static net.openhft.chronicle.engine.Chassis.*;
-import static org.junit.Assert.assertEquals;
+import static net.openhft.chronicle.engine.api.tree.RequestContext.requestContext;
+import static org.junit.Assert.*;
 
 /**
  * JUnit test class to support
@@ -110,6 +118,105 @@ public class FilePerKeyValueStoreTest {
         assertEquals(3, events.size());
     }
 
+    @Test
+    public void testMappedValueIsReadAgainAfterAnOverwrite() {
+        try (FilePerKeyValueStore store = newStore("mapped", new FilePerKeyConfig().memoryMapMinSize(64))) {
+            @NotNull final BytesStore first = BytesStore.from(repeat('a', 1024));
+            @NotNull final BytesStore second = BytesStore.from(repeat('b', 1024));
+
+            store.put("key", first);
+            @Nullable final BytesStore mapped = store.getUsing("key", null);
+            @Nullable final BytesStore again = store.getUsing("key", null);
+            assertNotNull(mapped);
+            assertNotNull(again);
+            assertTrue(mapped.contentEquals(first));
+            // each read has its own read position
+            ((Bytes) mapped).readSkip(16);
+            assertTrue(again.contentEquals(first));
+            // the mapping is unmapped once released, unless it is still held by the cache
+            mapped.release();
+            again.release();
+
+            store.put("key", second);
+            @Nullable final BytesStore reread = store.getUsing("key", null);
+            assertNotNull(reread);
+            assertTrue(reread.contentEquals(second));
+            reread.release();
+        }
+    }
+
+    @Test
+    public void testReadsSeeValuesNotYetWritten() throws IOException {
+        try (FilePerKeyValueStore store = newStore("pending", new FilePerKeyConfig().writeBehindIntervalMs(60_000))) {
+            store.put("key", BytesStore.from("one"));
+            assertFalse(fileOf("pending", "key").exists());
+
+            @Nullable final BytesStore value = store.getUsing("key", null);
+            assertNotNull(value);
+            assertTrue(value.contentEquals(BytesStore.from("one")));
+            value.release();
+            assertEquals(1, store.longSize());
+
+            store.flush();
+            assertEquals("one", contentsOf("pending", "key"));
+        }
+    }
+
+    @Test
+    public void testWrittenOnceMaxDirtyKeysAreWaiting() {
+        try (FilePerKeyValueStore store = newStore("maxdirty", new FilePerKeyConfig()
+                .writeBehindIntervalMs(60_000)
+                .writeBehindMaxDirtyKeys(10))) {
+            for (int i = 0; i < 9; i++)
+                store.put("key-" + i, BytesStore.from("value-" + i));
+            pause(200);
+            assertFalse(fileOf("maxdirty", "key-0").exists());
+
+            // the tenth key wakes the write behind, rather than waiting out the interval
+            store.put("key-9", BytesStore.from("value-9"));
+            for (int i = 0; i < 100 && !fileOf("maxdirty", "key-9").exists(); i++)
+                pause(20);
+            for (int i = 0; i < 10; i++)
+                assertTrue(fileOf("maxdirty", "key-" + i).exists());
+        }
+    }
+
+    @Test
+    public void testWrittenOnClose() throws IOException {
+        try (FilePerKeyValueStore store = newStore("close", new FilePerKeyConfig().writeBehindIntervalMs(60_000))) {
+            store.put("key", BytesStore.from("one"));
+            store.put("key", BytesStore.from("two"));
+        }
+        assertEquals("two", contentsOf("close", "key"));
+    }
+
+    @NotNull
+    private static File fileOf(@NotNull String name, @NotNull String key) {
+        return new File(OS.TARGET + "/" + NAME + "-" + name, key);
+    }
+
+    @NotNull
+    private static String contentsOf(@NotNull String name, @NotNull String key) throws IOException {
+        return new String(Files.readAllBytes(fileOf(name, key).toPath()), StandardCharsets.ISO_8859_1);
+    }
+
+    @NotNull
+    private FilePerKeyValueStore newStore(@NotNull String name, @NotNull FilePerKeyConfig config) {
+        @NotNull final String fullName = NAME + "-" + name;
+        @NotNull final FilePerKeyValueStore store = new FilePerKeyValueStore(
+                requestContext(fullName).basePath(OS.TARGET).type(String.class),
+                assetTree().acquireAsset(fullName), config);
+        store.clear();
+        return store;
+    }
+
+    @NotNull
+    private static String repeat(char ch, int length) {
+        @NotNull final char[] chars = new char[length];
+        Arrays.fill(chars, ch);
+        return new String(chars);
+    }
+
     private void waitFor(@NotNull List<MapEvent<String, String>> events, int count) throws InterruptedException {
         for (int i = 1; i <= 10; i++) {
             if (events.size() >= count)
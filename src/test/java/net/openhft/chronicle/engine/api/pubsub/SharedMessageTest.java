@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.pubsub;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static net.openhft.chronicle.network.connection.CoreFields.reply;
+
+@RunWith(Parameterized.class)
+public class SharedMessageTest {
+
+    @NotNull
+    private final WireType wireType;
+
+    public SharedMessageTest(@NotNull WireType wireType) {
+        this.wireType = wireType;
+    }
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {WireType.TEXT},
+                {WireType.BINARY}
+        });
+    }
+
+    @Test
+    public void testRepublishedMessageIsMarshalledAgain() {
+        // publishers can republish the same mutable message for each event
+        final StringBuilder message = new StringBuilder("first");
+        final Wire wire = wireType.apply(Bytes.elasticByteBuffer());
+        wire.writeDocument(false, w -> SharedMessage.of(message).write(w, reply));
+        final String first = wire.bytes().toHexString();
+
+        message.setLength(0);
+        message.append("second");
+        final Wire expected = wireType.apply(Bytes.elasticByteBuffer());
+        expected.writeDocument(false, w -> w.write(reply).object(message));
+
+        wire.clear();
+        wire.writeDocument(false, w -> SharedMessage.of(message).write(w, reply));
+        Assert.assertNotEquals(first, wire.bytes().toHexString());
+        Assert.assertEquals(expected.bytes().toHexString(), wire.bytes().toHexString());
+
+        expected.bytes().release();
+        wire.bytes().release();
+    }
+
+    @Test
+    public void testWrittenAsIfMarshalledDirectly() {
+        final String message = "hello world";
+
+        final Wire expected = wireType.apply(Bytes.elasticByteBuffer());
+        expected.writeDocument(false, w -> w.write(reply).object(message));
+
+        final Wire actual = wireType.apply(Bytes.elasticByteBuffer());
+        final SharedMessage sharedMessage = SharedMessage.of(message);
+        // twice, as the second copies the bytes marshalled by the first
+        for (int i = 0; i < 2; i++) {
+            actual.clear();
+            actual.writeDocument(false, w -> sharedMessage.write(w, reply));
+            Assert.assertEquals(expected.bytes().toHexString(), actual.bytes().toHexString());
+        }
+
+        expected.bytes().release();
+        actual.bytes().release();
+    }
+}
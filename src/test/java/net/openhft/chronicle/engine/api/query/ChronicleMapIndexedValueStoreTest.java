@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.wire.AbstractMarshallable;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Rob Austin.
+ */
+public class ChronicleMapIndexedValueStoreTest {
+
+    private static final int PRICE = 0;
+
+    private final String path = OS.TARGET + "/indexedValueStore-" + System.nanoTime();
+
+    @After
+    public void after() {
+        IOTools.shallowDeleteDirWithFiles(new File(path));
+    }
+
+    @Test
+    public void shouldRestoreValuesAndCheckpointOnRestart() {
+        try (ChronicleMapIndexedValueStore<Price> store = newStore()) {
+            assertEquals(0, store.checkpoint());
+            store.put(PRICE, key("EURUSD"), new Price("EURUSD", 1.1), 1);
+            store.put(PRICE, key("GBPUSD"), new Price("GBPUSD", 1.3), 2);
+            store.put(PRICE, key("EURUSD"), new Price("EURUSD", 1.2), 3);
+            store.checkpoint(3);
+        }
+
+        try (ChronicleMapIndexedValueStore<Price> store = newStore()) {
+            assertEquals(3, store.checkpoint());
+
+            final List<IndexedValue<Price>> values = store.values(PRICE, Price.class)
+                    .sorted((o1, o2) -> Long.compare(o1.index(), o2.index()))
+                    .collect(Collectors.toList());
+
+            assertEquals(2, values.size());
+            assertEquals(2, values.get(0).index());
+            assertEquals(new Price("GBPUSD", 1.3), values.get(0).v());
+            assertEquals(3, values.get(1).index());
+            assertEquals(new Price("EURUSD", 1.2), values.get(1).v());
+        }
+    }
+
+    private ChronicleMapIndexedValueStore<Price> newStore() {
+        final EventNameInterner eventNames = new EventNameInterner();
+        assertEquals(PRICE, eventNames.intern("price"));
+        return new ChronicleMapIndexedValueStore<>(eventNames, path, 1024, 64);
+    }
+
+    static Bytes key(String symbol) {
+        final Bytes bytes = Bytes.elasticByteBuffer();
+        bytes.append(symbol);
+        return bytes;
+    }
+
+    static class Price extends AbstractMarshallable {
+        String symbol;
+        double price;
+
+        Price() {
+        }
+
+        Price(String symbol, double price) {
+            this.symbol = symbol;
+            this.price = price;
+        }
+    }
+}
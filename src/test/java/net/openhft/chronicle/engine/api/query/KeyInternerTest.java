@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import static net.openhft.chronicle.engine.api.query.ChronicleMapIndexedValueStoreTest.key;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Rob Austin.
+ */
+public class KeyInternerTest {
+
+    @Test
+    public void shouldReturnTheSameSlotForTheSameKey() {
+        try (KeyInterner keyInterner = new KeyInterner(16)) {
+            // enough keys to cause the table to be resized a number of times
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, keyInterner.intern(key("key-" + i)));
+                assertEquals(i + 1, keyInterner.size());
+            }
+
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, keyInterner.intern(key("key-" + i)));
+            }
+            assertEquals(1000, keyInterner.size());
+        }
+    }
+
+    @Test
+    public void shouldOnlyCompareTheReadableBytes() {
+        try (KeyInterner keyInterner = new KeyInterner(16)) {
+            final Bytes bytes = key("xxkey");
+            bytes.readSkip(2);
+            assertEquals(0, keyInterner.intern(bytes));
+            assertEquals(0, keyInterner.intern(key("key")));
+            assertEquals(1, keyInterner.intern(key("key2")));
+        }
+    }
+
+    @Test
+    public void shouldInternEventNames() {
+        final EventNameInterner eventNames = new EventNameInterner();
+        assertEquals(0, eventNames.intern("trades"));
+        assertEquals(1, eventNames.intern(new StringBuilder("prices")));
+        assertEquals(0, eventNames.intern(new StringBuilder("trades")));
+        assertEquals("prices", eventNames.name(1));
+        assertEquals(2, eventNames.size());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.wire.AbstractMarshallable;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntConsumer;
+
+import static net.openhft.chronicle.engine.api.query.ChronicleMapIndexedValueStoreTest.key;
+import static net.openhft.chronicle.wire.Wires.copyTo;
+import static net.openhft.chronicle.wire.Wires.deepCopy;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * compares the cost of updating an already seen key, using the {@link KeyInterner} and {@link
+ * EventNameInterner}, with the {@code ConcurrentHashMap} of {@code Bytes} used previously.
+ *
+ * @author Rob Austin.
+ */
+@Ignore("Long running test")
+public class KeyInterningPerformanceTest {
+
+    private static final int KEYS = 10_000;
+    private static final int RUNS = 10_000_000;
+
+    private static double measure(String name, int runs, IntConsumer op) {
+        // the warm up includes the first time each key is seen
+        for (int i = 0; i < runs; i++)
+            op.accept(i);
+
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+        final long start = System.nanoTime();
+        for (int i = 0; i < runs; i++)
+            op.accept(i);
+        final long time = System.nanoTime() - start;
+        final double bytesPerOp = (double) (threadMXBean.getThreadAllocatedBytes(threadId) - allocated) / runs;
+
+        System.out.printf("%s: %.1f ns/op, %.2f bytes allocated/op%n", name, (double) time / runs, bytesPerOp);
+        return bytesPerOp;
+    }
+
+    @Test
+    public void updateExistingKeys() {
+        final Bytes[] keys = new Bytes[KEYS];
+        for (int i = 0; i < KEYS; i++)
+            keys[i] = key("instrument-" + i);
+        final StringBuilder eventName = new StringBuilder("onQuote");
+        final Quote quote = new Quote();
+
+        final ConcurrentMap<Bytes, BytesStore> bytesToKey = new ConcurrentHashMap<>();
+        final Map<String, ConcurrentMap<Object, IndexedValue<Quote>>> multiMap = new ConcurrentHashMap<>();
+        measure("ConcurrentHashMap", RUNS, i -> {
+            final Bytes key = keys[i % KEYS];
+            Object k = bytesToKey.get(key);
+            if (k == null) {
+                BytesStore copy = key.copy();
+                bytesToKey.put(copy.bytesForRead(), copy);
+                k = copy;
+            }
+            quote.bid = i;
+            multiMap.computeIfAbsent(eventName.toString(), e -> new ConcurrentHashMap<>())
+                    .compute(k, (k1, vOld) -> {
+                        if (vOld == null)
+                            return new IndexedValue<>(deepCopy(quote), i);
+                        copyTo(quote, vOld.v());
+                        vOld.index(i);
+                        return vOld;
+                    });
+        });
+
+        final EventNameInterner eventNames = new EventNameInterner();
+        try (VanillaIndexedValueStore<Quote> store = new VanillaIndexedValueStore<>(eventNames, Collections.emptyMap())) {
+            final double bytesPerOp = measure("KeyInterner", RUNS, i -> {
+                quote.bid = i;
+                store.put(eventNames.intern(eventName), keys[i % KEYS], quote, i);
+            });
+            assertEquals(0, bytesPerOp, 0.1);
+        }
+    }
+
+    static class Quote extends AbstractMarshallable {
+        double bid;
+        double ask;
+    }
+}
@@ -6,16 +6,20 @@ import net.openhft.chronicle.engine.EngineInstance;
 import net.openhft.chronicle.engine.ShutdownHooks;
 import net.openhft.chronicle.engine.api.query.events.EventProcessor;
 import net.openhft.chronicle.engine.api.query.events.WriterGateway;
+import net.openhft.chronicle.engine.api.query.events.close.ClosePriceEvent;
 import net.openhft.chronicle.engine.api.query.events.instrumentdata.CorpBondStaticLoadEvent;
 import net.openhft.chronicle.engine.api.query.events.marketdata.MarketDataEvent;
 import net.openhft.chronicle.engine.api.query.mockdata.MockDataGenerator;
 import net.openhft.chronicle.engine.api.tree.AssetTree;
+import net.openhft.chronicle.engine.query.QueueConfig;
 import net.openhft.chronicle.engine.tree.ChronicleQueueView;
 import net.openhft.chronicle.engine.tree.VanillaAssetTree;
 import net.openhft.chronicle.network.TCPRegistry;
 import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptAppender;
 import net.openhft.chronicle.queue.impl.RollingChronicleQueue;
 import net.openhft.chronicle.wire.Marshallable;
+import net.openhft.chronicle.wire.WireType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.junit.Assert;
@@ -174,6 +178,65 @@ public class VanillaIndexQueueViewTest {
         }
     }
 
+    @Test(timeout = 20000)
+    public void shouldIndexEveryEventAcrossShards() throws InterruptedException {
+        TCPRegistry.reset();
+        TCPRegistry.createServerSocketChannelFor("host.port1", "host.port2");
+        try (VanillaAssetTree tree = hooks.addCloseable(EngineInstance.engineMain(1, "indexView-engine.yaml"))) {
+            ChronicleQueue queue = null;
+            try {
+                assert tree != null;
+                final GenericTypesToString typesToString = new GenericTypesToString(EventProcessor.class);
+                tree.root().addView(TypeToString.class, typesToString);
+
+                queue = acquireQueue(tree, URI);
+                tree.acquireAsset(URI).addView(QueueConfig.class,
+                        new QueueConfig(s -> 1, false, null, WireType.BINARY).indexShards(4));
+
+                // each event name is ingested by only one of the shards
+                final ExcerptAppender appender = queue.acquireAppender();
+                final EventProcessor eventProcessor = appender.methodWriter(EventProcessor.class);
+                final int count = 100;
+                for (int i = 0; i < count; i++) {
+                    eventProcessor.onMarketDataChanged(new MarketDataEvent("I" + i, "REUTERS", i, i + 1));
+                    eventProcessor.onClosePrice(new ClosePriceEvent("I" + i, i));
+                    eventProcessor.onCorpBondStaticChange(new CorpBondStaticLoadEvent(i, i));
+                }
+                final long lastIndex = appender.lastIndexAppended();
+
+                final VanillaIndexQueueView<?> indexQueueView = (VanillaIndexQueueView<?>)
+                        tree.acquireAsset(URI).acquireView(IndexQueueView.class);
+                Assert.assertEquals(4, indexQueueView.shardCount());
+
+                while (indexQueueView.lastIndexRead() < lastIndex) {
+                    Thread.sleep(10);
+                }
+
+                long minLastIndexRead = Long.MAX_VALUE;
+                for (int i = 0; i < indexQueueView.shardCount(); i++) {
+                    minLastIndexRead = Math.min(minLastIndexRead, indexQueueView.lastIndexRead(i));
+                }
+                Assert.assertEquals(minLastIndexRead, indexQueueView.lastIndexRead());
+                Assert.assertEquals(lastIndex, indexQueueView.lastIndexRead());
+
+                for (Class<? extends Marshallable> type : new Class[]{MarketDataEvent.class,
+                        ClosePriceEvent.class, CorpBondStaticLoadEvent.class}) {
+                    final VanillaIndexQuery query = new VanillaIndexQuery();
+                    query.eventName(typesToString.typeToString(type));
+                    Assert.assertEquals(type.getSimpleName(), count,
+                            indexQueueView.bootstrapValues(query, type).count());
+                }
+
+            } finally {
+                final File file = queue.file();
+                tree.close();
+                if (file.isDirectory())
+                    IOTools.shallowDeleteDirWithFiles((file));
+
+            }
+        }
+    }
+
     @Nullable
     private RollingChronicleQueue acquireQueue(@NotNull AssetTree assetTree, @NotNull final String uri) {
         return ((ChronicleQueueView) assetTree.acquireQueue(uri, String.class, Marshallable.class, "clusterTwo"))
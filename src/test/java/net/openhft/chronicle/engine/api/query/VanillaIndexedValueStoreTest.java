@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.api.query;
+
+import net.openhft.chronicle.engine.api.query.ChronicleMapIndexedValueStoreTest.Price;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static net.openhft.chronicle.engine.api.query.ChronicleMapIndexedValueStoreTest.key;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Rob Austin.
+ */
+public class VanillaIndexedValueStoreTest {
+
+    private static List<String> symbols(VanillaIndexedValueStore<Price> store, String field, Comparable from, Comparable to) {
+        return store.values(0, Price.class, field, from, to)
+                .map(i -> i.v().symbol)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void shouldSelectValuesUsingTheSecondaryIndex() {
+        final EventNameInterner eventNames = new EventNameInterner();
+        assertEquals(0, eventNames.intern("price"));
+
+        try (VanillaIndexedValueStore<Price> store = new VanillaIndexedValueStore<>(eventNames,
+                Collections.singletonMap("price", Collections.singleton("price")))) {
+            store.put(0, key("EURUSD"), new Price("EURUSD", 1.1), 1);
+            store.put(0, key("GBPUSD"), new Price("GBPUSD", 1.3), 2);
+            store.put(0, key("USDJPY"), new Price("USDJPY", 110), 3);
+
+            assertEquals(3, store.values(0, Price.class).count());
+            assertEquals(Collections.singletonList("GBPUSD"), symbols(store, "price", 1.3, 1.3));
+            assertEquals(Arrays.asList("EURUSD", "GBPUSD"), symbols(store, "price", null, 2.0));
+            assertEquals(Collections.singletonList("USDJPY"), symbols(store, "price", 2.0, null));
+
+            // the value is re-indexed when the field changes
+            store.put(0, key("EURUSD"), new Price("EURUSD", 120), 4);
+            assertEquals(Collections.singletonList("GBPUSD"), symbols(store, "price", null, 2.0));
+            assertEquals(Arrays.asList("EURUSD", "USDJPY"), symbols(store, "price", 2.0, null));
+            assertEquals(3, store.values(0, Price.class).count());
+
+            // fields without a secondary index can not be used
+            assertNull(store.values(0, Price.class, "symbol", "EURUSD", "EURUSD"));
+        }
+    }
+}
@@ -147,6 +147,40 @@ public class TestIndexQueueView {
 
     }
 
+    @Test
+    public void testBatchedSnapshot() throws InterruptedException {
+        TCPRegistry.createServerSocketChannelFor("host.port1");
+        ClassAliasPool.CLASS_ALIASES.addAlias(Trade.class, "TRADE_M");
+        String uri = "/queue/trades";
+
+        Set<String> tradeIds = publishMockData();
+
+        startEngine();
+
+        VanillaAssetTree assetTree = hooks.addCloseable((new VanillaAssetTree()).forRemoteAccess("host.port1", WireType.BINARY));
+
+        VanillaAsset asset = (VanillaAsset) assetTree.acquireAsset(uri);
+        assetTree.root().getRuleProvider().configQueueRemote(asset);
+
+        IndexQueueView indexQueueView = assetTree.acquireAsset(uri).acquireView(IndexQueueView.class);
+        VanillaIndexQuery indexQuery = new VanillaIndexQuery();
+        indexQuery.select(Trade.class, "true");
+        indexQuery.fromIndex(IndexQuery.FROM_END);
+        indexQuery.eventName(TRADES);
+        indexQuery.batchSize(100);
+
+        Set<String> m = new HashSet<>();
+        indexQueueView.registerSubscriber(subscribe(tradeIds, m), indexQuery);
+
+        for (int i = 0; i < 10_000; i++) {
+            Thread.sleep(1);
+            if (tradeIds.isEmpty())
+                break;
+        }
+
+        assertTrue("Expected empty, but was: " + tradeIds.size(), tradeIds.isEmpty());
+    }
+
     @NotNull
     private Subscriber subscribe(Set<String> tradeIds, Set<String> m) {
         return indexedValue -> {
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import net.openhft.lang.io.Bytes;
+import net.openhft.lang.io.DirectStore;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompressingValueMarshallerTest {
+
+    @NotNull
+    private final CompressingValueMarshaller<String> marshaller =
+            new CompressingValueMarshaller<>(String.class, 64);
+
+    @NotNull
+    private static String repeat(@NotNull String s, int times) {
+        @NotNull final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++)
+            sb.append(s);
+        return sb.toString();
+    }
+
+    private void assertRoundTrip(@NotNull String value, boolean compressed) {
+        @NotNull final Bytes bytes = DirectStore.allocate(64 << 10).bytes();
+        marshaller.write(bytes, value);
+        assertEquals(compressed, bytes.position() < value.length());
+        bytes.flip();
+        assertEquals(value, marshaller.read(bytes));
+        assertEquals(0, bytes.remaining());
+    }
+
+    @Test
+    public void testLargeValueCompressed() {
+        assertRoundTrip(repeat("hello world ", 1000), true);
+        // the buffers are reused by the next value
+        assertRoundTrip(repeat("bye ", 500), true);
+    }
+
+    @Test
+    public void testSmallValueStoredRaw() {
+        assertRoundTrip("hello", false);
+    }
+
+    @Test
+    public void testCompressionChosenByName() {
+        assertNull(CompressingValueMarshaller.forCompression(null, String.class));
+        assertNull(CompressingValueMarshaller.forCompression("none", String.class));
+        assertNotNull(CompressingValueMarshaller.forCompression("deflate", String.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedCompression() {
+        CompressingValueMarshaller.forCompression("lz4", String.class);
+    }
+}
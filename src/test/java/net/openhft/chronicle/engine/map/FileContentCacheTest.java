@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import net.openhft.chronicle.bytes.BytesStore;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rob Austin.
+ */
+public class FileContentCacheTest {
+
+    private static BytesStore contents(String s) {
+        return BytesStore.wrap(s.getBytes());
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedContents() {
+        FileContentCache cache = new FileContentCache(8);
+        File a = new File("a"), b = new File("b"), c = new File("c");
+
+        cache.put(a, 1, contents("aaaa"));
+        cache.put(b, 1, contents("bbbb"));
+        assertEquals(8, cache.bytes());
+
+        // reading a makes b the least recently used
+        BytesStore hit = cache.contents(a);
+        assertNotNull(hit);
+        hit.release();
+
+        cache.put(c, 1, contents("cccc"));
+        assertEquals(8, cache.bytes());
+        assertEquals(1, cache.evictions());
+
+        assertNull(cache.contents(b));
+        // the record of an evicted file is kept
+        assertNotNull(cache.get(b));
+
+        BytesStore stillCached = cache.contents(c);
+        assertTrue(stillCached.contentEquals(contents("cccc")));
+        stillCached.release();
+
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void shouldNotServeInvalidatedContents() {
+        FileContentCache cache = new FileContentCache(1 << 10);
+        File a = new File("a");
+
+        cache.put(a, 1, contents("aaaa"));
+        cache.get(a).valid = false;
+        assertNull(cache.contents(a));
+
+        BytesStore removed = cache.remove(a);
+        assertTrue(removed.contentEquals(contents("aaaa")));
+        removed.release();
+        assertEquals(0, cache.bytes());
+        assertNull(cache.get(a));
+    }
+}
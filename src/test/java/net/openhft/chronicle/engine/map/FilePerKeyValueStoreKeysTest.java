@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.engine.ShutdownHooks;
+import net.openhft.chronicle.engine.api.tree.AssetTree;
+import net.openhft.chronicle.engine.tree.VanillaAssetTree;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static net.openhft.chronicle.engine.api.tree.RequestContext.requestContext;
+import static org.junit.Assert.assertEquals;
+
+public class FilePerKeyValueStoreKeysTest {
+
+    @Rule
+    public ShutdownHooks hooks = new ShutdownHooks();
+    private AssetTree assetTree;
+    private String name;
+    private File dir;
+
+    @NotNull
+    private static Set<String> keysOf(@NotNull FilePerKeyValueStore store) {
+        @NotNull final Set<String> keys = new HashSet<>();
+        for (Iterator<String> iterator = store.keySetIterator(); iterator.hasNext(); )
+            keys.add(iterator.next());
+        return keys;
+    }
+
+    @NotNull
+    private static Set<String> setOf(String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+
+    @Before
+    public void before() {
+        assetTree = hooks.addCloseable(new VanillaAssetTree().forTesting());
+        name = "fpkeys-" + System.nanoTime();
+        dir = new File(OS.TARGET, name);
+    }
+
+    @NotNull
+    private FilePerKeyValueStore newStore(@NotNull FilePerKeyConfig config) {
+        return new FilePerKeyValueStore(requestContext(name).basePath(OS.TARGET).type(String.class),
+                assetTree.acquireAsset(name), config);
+    }
+
+    @Test
+    public void testKeysAreReadOnStartUpWithoutHiddenFiles() throws IOException {
+        Files.createDirectories(dir.toPath());
+        Files.write(new File(dir, "a").toPath(), "1".getBytes());
+        Files.write(new File(dir, "b").toPath(), "2".getBytes());
+        // e.g. an editor's temporary file
+        Files.write(new File(dir, ".a.swp").toPath(), "3".getBytes());
+
+        try (FilePerKeyValueStore store = newStore(new FilePerKeyConfig())) {
+            assertEquals(setOf("a", "b"), keysOf(store));
+            assertEquals(2, store.longSize());
+
+            store.put("c", BytesStore.from("4"));
+            store.remove("a");
+            assertEquals(setOf("b", "c"), keysOf(store));
+
+            store.clear();
+            assertEquals(0, store.longSize());
+        }
+    }
+
+    @Test
+    public void testRescanKeepsKeysWaitingToBeWritten() throws IOException {
+        try (FilePerKeyValueStore store = newStore(new FilePerKeyConfig().writeBehindIntervalMs(60_000))) {
+            store.put("pending", BytesStore.from("1"));
+
+            // as seen by a rescan after the watcher lost events
+            Files.write(new File(dir, "added").toPath(), "2".getBytes());
+            Files.write(new File(dir, ".hidden").toPath(), "3".getBytes());
+            store.scanKeys();
+
+            assertEquals(setOf("pending", "added"), keysOf(store));
+
+            Files.delete(new File(dir, "added").toPath());
+            store.scanKeys();
+            assertEquals(setOf("pending"), keysOf(store));
+
+            store.remove("pending");
+            store.scanKeys();
+            assertEquals(0, store.longSize());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import net.openhft.chronicle.engine.api.map.MapEvent;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class LazyMapEventTest {
+
+    private final AtomicInteger decoded = new AtomicInteger();
+    private final Function<String, Integer> decoder = s -> {
+        decoded.incrementAndGet();
+        return Integer.parseInt(s);
+    };
+
+    @NotNull
+    private LazyMapEvent<String, Integer, String> event() {
+        return new LazyMapEvent<>(UpdatedEvent.of("/map", "key", "1", "2", false, true), decoder);
+    }
+
+    @Test
+    public void testValuesDecodedOnceWhenRead() {
+        @NotNull final LazyMapEvent<String, Integer, String> event = event();
+        assertEquals("key", event.getKey());
+        assertEquals(0, decoded.get());
+
+        assertEquals(2, (int) event.getValue());
+        assertEquals(2, (int) event.getValue());
+        assertEquals(1, decoded.get());
+
+        @NotNull final MapEvent<String, Integer> translated = event.translate(k -> k, v -> v);
+        assertTrue(translated instanceof UpdatedEvent);
+        assertEquals(1, (int) translated.oldValue());
+        assertEquals(2, decoded.get());
+    }
+
+    @Test
+    public void testRetainedEventDecodedOnDetach() {
+        @NotNull final LazyMapEvent<String, Integer, String> event = event();
+        event.detach(true);
+        assertEquals(2, decoded.get());
+        assertEquals("key", event.getKey());
+        assertEquals(1, (int) event.oldValue());
+        assertEquals(2, (int) event.getValue());
+        assertEquals(2, decoded.get());
+    }
+
+    @Test
+    public void testEqualWhenDecodedEqual() {
+        assertEquals(event(), event());
+        assertEquals(event().hashCode(), event().hashCode());
+        assertNotEquals(event(), new LazyMapEvent<>(UpdatedEvent.of("/map", "key", "1", "3", false, true), decoder));
+    }
+
+    @Test
+    public void testToStringEqualsAndHashCodeAfterDetach() {
+        @NotNull final LazyMapEvent<String, Integer, String> read = event();
+        @NotNull final LazyMapEvent<String, Integer, String> notRead = event();
+        final int hashCode = notRead.hashCode();
+
+        read.getValue();
+        read.oldValue();
+        read.detach(false);
+        notRead.detach(false);
+        assertEquals(2, decoded.get());
+
+        // the values read are kept, the others are not decoded
+        assertEquals(read.translate(k -> k, v -> v).toString(), read.toString());
+        assertTrue(notRead.toString(), notRead.toString().contains("key"));
+        assertEquals(hashCode, notRead.hashCode());
+        assertEquals(notRead, notRead);
+        assertNotEquals(read, notRead);
+        assertNotEquals(notRead, read);
+        assertEquals(2, decoded.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotDecodedWhenNotRetained() {
+        @NotNull final LazyMapEvent<String, Integer, String> event = event();
+        event.detach(false);
+        assertEquals(0, decoded.get());
+        event.getValue();
+    }
+}
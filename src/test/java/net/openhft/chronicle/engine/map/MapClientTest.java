@@ -17,6 +17,8 @@
 
 package net.openhft.chronicle.engine.map;
 
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.util.SerializableBiFunction;
 import net.openhft.chronicle.engine.ShutdownHooks;
 import net.openhft.chronicle.engine.ThreadMonitoringTest;
 import net.openhft.chronicle.engine.api.map.MapView;
@@ -43,6 +45,8 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -177,6 +181,160 @@ public class MapClientTest extends ThreadMonitoringTest {
         }));
     }
 
+    @Test
+    public void testGetAllAndRemoveAll() throws IOException, InterruptedException {
+
+        supplyMap(Integer.class, String.class, mapProxy -> {
+            @NotNull Map<Integer, String> data = new LinkedHashMap<>();
+            for (int i = 0; i < 3000; i++)
+                data.put(i, "value-" + i);
+            mapProxy.putAll(data);
+            assertEquals(3000, mapProxy.size());
+
+            // more keys than fit in one batch, including keys which are not present
+            @NotNull final List<Integer> keys = new ArrayList<>();
+            for (int i = 1000; i < 3500; i++)
+                keys.add(i);
+            keys.add(10);
+
+            @NotNull final Map<Integer, String> values = mapProxy.getAll(keys);
+            assertEquals(2001, values.size());
+            assertEquals("value-2500", values.get(2500));
+            assertEquals("value-10", values.get(10));
+            assertNull(values.get(3000));
+
+            mapProxy.removeAll(keys);
+            assertEquals(999, mapProxy.size());
+            assertNull(mapProxy.get(10));
+        });
+    }
+
+    @Test
+    public void testIterateManyChunks() throws IOException, InterruptedException {
+
+        supplyMap(Integer.class, String.class, mapProxy -> {
+            @NotNull Map<Integer, String> data = new LinkedHashMap<>();
+            for (int i = 0; i < 5000; i++)
+                data.put(i, "value-" + i);
+            mapProxy.putAll(data);
+
+            @NotNull final Set<Integer> keys = new HashSet<>();
+            for (Integer key : mapProxy.keySet())
+                assertTrue(keys.add(key));
+            assertEquals(data.keySet(), keys);
+
+            @NotNull final Set<String> values = new HashSet<>(mapProxy.values());
+            assertEquals(5000, values.size());
+            assertTrue(values.contains("value-4999"));
+
+            int count = 0;
+            for (@NotNull Entry<Integer, String> entry : mapProxy.entrySet()) {
+                assertEquals("value-" + entry.getKey(), entry.getValue());
+                count++;
+            }
+            assertEquals(5000, count);
+        });
+    }
+
+    @Test
+    public void testAsyncOperations() throws IOException, InterruptedException {
+
+        supplyMap(Integer.class, String.class, mapProxy -> {
+            try {
+                // many requests in flight at once, each reply matched to its own future
+                @NotNull final List<CompletableFuture<Void>> puts = new ArrayList<>();
+                for (int i = 0; i < 100; i++)
+                    puts.add(mapProxy.putAsync(i, "value-" + i));
+                CompletableFuture.allOf(puts.toArray(new CompletableFuture[puts.size()])).get(10, TimeUnit.SECONDS);
+                assertEquals(100, mapProxy.size());
+
+                @NotNull final List<CompletableFuture<String>> gets = new ArrayList<>();
+                for (int i = 0; i < 100; i++)
+                    gets.add(mapProxy.getAsync(i));
+                for (int i = 0; i < 100; i++)
+                    assertEquals("value-" + i, gets.get(i).get(10, TimeUnit.SECONDS));
+
+                assertTrue(mapProxy.containsKeyAsync(1).get(10, TimeUnit.SECONDS));
+                assertEquals("value-1", mapProxy.getAndPutAsync(1, "one").get(10, TimeUnit.SECONDS));
+                assertEquals("one", mapProxy.getAndRemoveAsync(1).get(10, TimeUnit.SECONDS));
+                mapProxy.removeAsync(2).get(10, TimeUnit.SECONDS);
+                assertFalse(mapProxy.containsKeyAsync(2).get(10, TimeUnit.SECONDS));
+                assertNull(mapProxy.getAsync(2).get(10, TimeUnit.SECONDS));
+                assertEquals(98, mapProxy.size());
+
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                throw new AssertionError(e);
+            }
+        });
+    }
+
+    @Test
+    public void testAsyncRequestsFailWhenClosed() throws IOException, InterruptedException {
+        if (supplier != RemoteMapSupplier.class)
+            return;
+
+        supplyMap(Integer.class, String.class, mapProxy -> {
+            mapProxy.put(1, "one");
+            @NotNull final List<CompletableFuture<String>> gets = new ArrayList<>();
+            for (int i = 0; i < 100; i++)
+                gets.add(mapProxy.getAsync(1));
+
+            closeQuietly(((Assetted) mapProxy).underlying());
+
+            // each request in flight either completed, or failed, rather than waiting forever
+            for (@NotNull CompletableFuture<String> get : gets) {
+                try {
+                    assertEquals("one", get.get(10, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IORuntimeException);
+                } catch (InterruptedException | TimeoutException e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            try {
+                mapProxy.getAsync(1).get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IORuntimeException);
+            } catch (InterruptedException | TimeoutException e) {
+                throw new AssertionError(e);
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrentUpdatesOfOneKey()throws IOException, InterruptedException {
+
+        supplyMap(Integer.class, Integer.class, mapProxy -> {
+            @NotNull final SerializableBiFunction<Integer, Integer, Integer> sum = Integer::sum;
+            @NotNull final List<Thread> threads = new ArrayList<>();
+            @NotNull final AtomicReference<Throwable> failed = new AtomicReference<>();
+            for (int t = 0; t < 4; t++) {
+                @NotNull final Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 250; i++)
+                        mapProxy.merge(1, 1, sum);
+                }, "merge-" + t);
+                thread.setUncaughtExceptionHandler((th, e) -> failed.set(e));
+                threads.add(thread);
+                thread.start();
+            }
+            try {
+                for (@NotNull Thread thread : threads)
+                    thread.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertNull(failed.get());
+            assertEquals(1000, (int) mapProxy.get(1));
+
+            // applied on the server in the order sent, without a reply for each update
+            for (int i = 0; i < 100; i++)
+                mapProxy.asyncUpdateKey(1, v -> v + 1);
+            assertEquals("1101", mapProxy.syncUpdateKey(1, v -> v + 1, v -> String.valueOf(v)));
+        });
+    }
+
     @Test
     public void testMapsAsValues() throws IOException, InterruptedException {
 
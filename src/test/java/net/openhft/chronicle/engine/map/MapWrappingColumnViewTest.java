@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.engine.ShutdownHooks;
+import net.openhft.chronicle.engine.ThreadMonitoringTest;
+import net.openhft.chronicle.engine.api.column.ClosableIterator;
+import net.openhft.chronicle.engine.api.column.ColumnViewInternal.MarshableFilter;
+import net.openhft.chronicle.engine.api.column.ColumnViewInternal.SortedFilter;
+import net.openhft.chronicle.engine.api.column.Row;
+import net.openhft.chronicle.engine.api.map.MapView;
+import net.openhft.chronicle.engine.api.pubsub.SubscriptionCollection;
+import net.openhft.chronicle.engine.api.tree.AssetTree;
+import net.openhft.chronicle.engine.tree.VanillaAssetTree;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static net.openhft.chronicle.engine.api.tree.RequestContext.requestContext;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class MapWrappingColumnViewTest extends ThreadMonitoringTest {
+
+    private static final int ENTRIES = 50_000;
+
+    @Rule
+    public ShutdownHooks hooks = new ShutdownHooks();
+    private AssetTree assetTree;
+
+    @Before
+    public void before() {
+        assetTree = hooks.addCloseable(new VanillaAssetTree(1).forTesting());
+    }
+
+    @Override
+    @After
+    public void preAfter() {
+        threadDump.ignore("ChronicleMapKeyValueStore Closer");
+        Closeable.closeQuietly(assetTree);
+    }
+
+    @Test
+    public void testConcurrentFirstReadsSeeEveryEntry() throws InterruptedException {
+        @NotNull final MapView<String, String> map = assetTree.acquireMap("/columns", String.class, String.class);
+        for (int i = 0; i < ENTRIES; i++)
+            map.put("key-" + i, "value-" + i);
+
+        @NotNull final MapWrappingColumnView<String, String> columnView = new MapWrappingColumnView<>(
+                requestContext("/columns"), assetTree.acquireAsset("/columns"), map);
+
+        // every reader waits for the one bootstrapping, rather than reading a partial map
+        @NotNull final CountDownLatch start = new CountDownLatch(1);
+        @NotNull final AtomicReference<Throwable> failed = new AtomicReference<>();
+        @NotNull final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            @NotNull final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    int rows = 0;
+                    @NotNull final ClosableIterator<Row> iterator = columnView.iterator(new SortedFilter());
+                    while (iterator.hasNext()) {
+                        iterator.next();
+                        rows++;
+                    }
+                    assertEquals(ENTRIES, rows);
+                } catch (Throwable e) {
+                    failed.compareAndSet(null, e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (@NotNull Thread thread : threads)
+            thread.join();
+
+        assertNull(failed.get());
+    }
+
+    @Test
+    public void testFilteredRowsFollowTheMap() {
+        @NotNull final MapView<String, String> map = assetTree.acquireMap("/columns", String.class, String.class);
+        for (int i = 0; i < 10; i++)
+            map.put("key-" + i, "value-" + i);
+
+        @NotNull final MapWrappingColumnView<String, String> columnView = new MapWrappingColumnView<>(
+                requestContext("/columns"), assetTree.acquireAsset("/columns"), map);
+        @NotNull final SortedFilter sortedFilter = new SortedFilter();
+        sortedFilter.marshableFilters.add(new MarshableFilter("value", "value-1"));
+        assertEquals(1, columnView.rowCount(sortedFilter));
+
+        map.put("key-11", "value-11");
+        map.put("key-2", "value-12");
+        assertEquals(3, columnView.rowCount(sortedFilter));
+
+        map.remove("key-1");
+        map.put("key-11", "value-3");
+        assertEquals(1, columnView.rowCount(sortedFilter));
+
+        @NotNull final SubscriptionCollection subscription = assetTree.acquireAsset("/columns")
+                .subscription(false);
+        final int subscribers = subscription.entrySubscriberCount();
+        columnView.close();
+        assertEquals(subscribers - 1, subscription.entrySubscriberCount());
+        assertFalse(columnView.iterator(new SortedFilter()).hasNext());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class SortedEntryIndexTest {
+
+    private static final Comparator<Map.Entry<String, Integer>> BY_VALUE = Comparator
+            .comparing((Map.Entry<String, Integer> e) -> e.getValue())
+            .thenComparing(Map.Entry::getKey);
+
+    @NotNull
+    private static Map.Entry<String, Integer> entry(String key, int value) {
+        return new AbstractMap.SimpleImmutableEntry<>(key, value);
+    }
+
+    @NotNull
+    private static List<Map.Entry<String, Integer>> entries(@NotNull SortedEntryIndex<String, Integer> index) {
+        final List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < index.size(); i++)
+            entries.add(index.get(i));
+        return entries;
+    }
+
+    @Test
+    public void testKeptSortedAsEntriesChange() {
+        final Map.Entry<String, Integer> b = entry("b", 2);
+        final SortedEntryIndex<String, Integer> index = new SortedEntryIndex<>(BY_VALUE, null,
+                Arrays.asList(entry("a", 3), b, entry("c", 1)));
+        Assert.assertEquals("[c=1, b=2, a=3]", entries(index).toString());
+
+        // an update is the old entry removed and the new entry added
+        index.remove(b);
+        index.add(entry("b", 4));
+        index.add(entry("d", 2));
+        Assert.assertEquals("[c=1, d=2, a=3, b=4]", entries(index).toString());
+    }
+
+    @Test
+    public void testOnlyEntriesMatchingTheFilter() {
+        final Map.Entry<String, Integer> b = entry("b", 2);
+        final SortedEntryIndex<String, Integer> index = new SortedEntryIndex<>(BY_VALUE,
+                e -> e.getValue() % 2 == 0, Arrays.asList(entry("a", 3), b, entry("c", 4)));
+        Assert.assertEquals("[b=2, c=4]", entries(index).toString());
+
+        index.remove(b);
+        index.add(entry("b", 5));
+        index.add(entry("d", 0));
+        Assert.assertEquals("[d=0, c=4]", entries(index).toString());
+    }
+
+    @Test
+    public void testReadByPosition() {
+        final Random random = new Random(1);
+        final Map<String, Map.Entry<String, Integer>> map = new HashMap<>();
+        final SortedEntryIndex<String, Integer> index = new SortedEntryIndex<>(BY_VALUE, null,
+                Collections.emptyList());
+        for (int i = 0; i < 10_000; i++) {
+            final String key = "k" + random.nextInt(1_000);
+            final Map.Entry<String, Integer> old = random.nextInt(4) == 0
+                    ? map.remove(key)
+                    : map.put(key, entry(key, random.nextInt(100)));
+            if (old != null)
+                index.remove(old);
+            final Map.Entry<String, Integer> entry = map.get(key);
+            if (entry != null)
+                index.add(entry);
+        }
+
+        final List<Map.Entry<String, Integer>> expected = new ArrayList<>(map.values());
+        expected.sort(BY_VALUE);
+        Assert.assertEquals(expected, entries(index));
+    }
+}
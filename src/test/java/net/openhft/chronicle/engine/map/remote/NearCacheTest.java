@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.map.remote;
+
+import net.openhft.chronicle.engine.map.RemovedEvent;
+import net.openhft.chronicle.engine.map.UpdatedEvent;
+import net.openhft.chronicle.wire.AbstractMarshallable;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NearCacheTest {
+
+    @Test
+    public void testEventsKeepTheCacheCoherent() {
+        final NearCache<String, String> cache = subscribed(String.class);
+        cache.put("a", "1", cache.changes("a"));
+        Assert.assertEquals("1", cache.get("a", null));
+
+        cache.onMessage(UpdatedEvent.of("/map", "a", "1", "2", false, true));
+        Assert.assertEquals("2", cache.get("a", null));
+
+        // a key which is not cached is not added by an event
+        cache.onMessage(UpdatedEvent.of("/map", "b", "1", "2", false, true));
+        Assert.assertNull(cache.get("b", null));
+
+        cache.onMessage(RemovedEvent.of("/map", "a", "2", false));
+        Assert.assertNull(cache.get("a", null));
+    }
+
+    @Test
+    public void testReadIsNotCachedIfTheKeyChangedMeanwhile() {
+        final NearCache<String, String> cache = subscribed(String.class);
+        final long changes = cache.changes("a");
+        cache.invalidate("a");
+        cache.put("a", "stale", changes);
+        Assert.assertNull(cache.get("a", null));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        final NearCache<String, String> cache = subscribed(String.class);
+        cache.put("a", "1", cache.changes("a"));
+        cache.put("b", "2", cache.changes("b"));
+        cache.get("a", null);
+        cache.put("c", "3", cache.changes("c"));
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.containsKey("a"));
+        Assert.assertFalse(cache.containsKey("b"));
+    }
+
+    @Test
+    public void testMutableValuesAreCopied() {
+        final NearCache<String, Value> cache = subscribed(Value.class);
+        final Value value = new Value();
+        value.x = 1;
+        cache.put("a", value, cache.changes("a"));
+        value.x = 2;
+
+        final Value cached = cache.get("a", null);
+        Assert.assertEquals(1, cached.x);
+        cached.x = 3;
+        Assert.assertEquals(1, cache.get("a", null).x);
+    }
+
+    @Test
+    public void testNothingIsCachedUntilSubscribed() {
+        final NearCache<String, String> cache = new NearCache<>(String.class, 2);
+        cache.put("a", "1", cache.changes("a"));
+        Assert.assertNull(cache.get("a", null));
+
+        // a read sent before the subscription is not cached either
+        final long changes = cache.changes("a");
+        cache.onSubscribe();
+        cache.put("a", "1", changes);
+        Assert.assertNull(cache.get("a", null));
+
+        cache.put("a", "1", cache.changes("a"));
+        Assert.assertEquals("1", cache.get("a", null));
+    }
+
+    @Test
+    public void testConnectionLossClearsTheCache() {
+        final NearCache<String, String> cache = subscribed(String.class);
+        cache.put("a", "1", cache.changes("a"));
+        final long changes = cache.changes("b");
+
+        cache.onConnectionLost();
+        Assert.assertNull(cache.get("a", null));
+        cache.put("a", "1", cache.changes("a"));
+        Assert.assertNull(cache.get("a", null));
+
+        // a read in flight across the reconnect is not cached
+        cache.onSubscribe();
+        cache.put("b", "2", changes);
+        Assert.assertNull(cache.get("b", null));
+
+        cache.put("a", "1", cache.changes("a"));
+        Assert.assertEquals("1", cache.get("a", null));
+    }
+
+    @Test
+    public void testResubscribingClearsTheCache() {
+        final NearCache<String, String> cache = subscribed(String.class);
+        cache.put("a", "1", cache.changes("a"));
+
+        // events may have been missed before the connection loss was noticed
+        cache.onSubscribe();
+        Assert.assertNull(cache.get("a", null));
+    }
+
+    private static <V> NearCache<String, V> subscribed(Class<V> vClass) {
+        final NearCache<String, V> cache = new NearCache<>(vClass, 2);
+        cache.onSubscribe();
+        return cache;
+    }
+
+    static class Value extends AbstractMarshallable {
+        int x;
+    }
+}
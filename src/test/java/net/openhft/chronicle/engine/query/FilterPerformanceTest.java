@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.query;
+
+import net.openhft.chronicle.engine.api.pubsub.InvalidSubscriberException;
+import net.openhft.chronicle.engine.api.pubsub.Subscriber;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * compares the cost of a message passing through a compiled {@link Filter.FilteredSubscriber},
+ * with the interpreted pipeline it replaced, for 1 to 10 chained operations.
+ */
+@Ignore("Long running test")
+public class FilterPerformanceTest {
+
+    private static final int RUNS = 20_000_000;
+
+    static long sink;
+
+    private static void measure(String name, @NotNull Subscriber<Integer> subscriber)
+            throws InvalidSubscriberException {
+        for (int i = 0; i < RUNS; i++)
+            subscriber.onMessage(i);
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++)
+            subscriber.onMessage(i);
+        final long time = System.nanoTime() - start;
+        System.out.printf("%s: %.2f ns/message%n", name, (double) time / RUNS);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void chainedOperations() throws InvalidSubscriberException {
+        for (int ops = 1; ops <= 10; ops++) {
+            // alternate filters which pass every message and maps
+            @NotNull final Filter<Integer> filter = new Filter<>();
+            for (int j = 0; j < ops; j++) {
+                if ((j & 1) == 0)
+                    filter.addFilter(i -> i >= 0);
+                else
+                    filter.addMap(i -> i + 1);
+            }
+            final Subscriber<Integer> subscriber = i -> sink += i;
+
+            measure(ops + " ops, interpreted", new InterpretedSubscriber<>(filter, subscriber));
+            measure(ops + " ops, compiled", new Filter.FilteredSubscriber<>(filter, subscriber));
+        }
+    }
+
+    /**
+     * the filter and map operations as they were interpreted for each message.
+     */
+    static class InterpretedSubscriber<E> implements Subscriber<E> {
+        @NotNull
+        private final Filter<E> filter;
+        @NotNull
+        private final Subscriber<E> subscriber;
+
+        InterpretedSubscriber(@NotNull Filter<E> filter, @NotNull Subscriber<E> subscriber) {
+            this.filter = filter;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onMessage(E message) throws InvalidSubscriberException {
+            for (@NotNull Operation o : filter) {
+                switch (o.op()) {
+                    case FILTER:
+                        final Predicate<E> predicate = o.wrapped();
+                        if (!predicate.test(message))
+                            return;
+                        break;
+
+                    case MAP:
+                        final Function<Object, E> function = o.wrapped();
+                        message = function.apply(message);
+                        break;
+
+                    default:
+                        throw new UnsupportedOperationException();
+                }
+            }
+            subscriber.onMessage(message);
+        }
+    }
+}
@@ -20,6 +20,7 @@ package net.openhft.chronicle.engine.query;
 import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.core.pool.ClassAliasPool;
 import net.openhft.chronicle.engine.ThreadMonitoringTest;
+import net.openhft.chronicle.engine.api.pubsub.InvalidSubscriberException;
 import net.openhft.chronicle.engine.api.tree.RequestContext;
 import net.openhft.chronicle.wire.BinaryWire;
 import net.openhft.chronicle.wire.TextWire;
@@ -35,8 +36,10 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * @author Rob Austin.
@@ -97,4 +100,24 @@ public class FilterTest extends ThreadMonitoringTest {
         Assert.assertEquals(1, actual.pipelineSize());
         Assert.assertEquals(Operation.OperationType.FILTER, actual.getPipeline(0).op());
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCompiledPipeline() throws InvalidSubscriberException {
+        // each operation changes the type of the message, so the filter is raw
+        @NotNull Filter filter = new Filter<>();
+        filter.addFilter(s -> !((String) s).isEmpty());
+        filter.addMap(s -> ((String) s).length());
+        filter.addFlatMap(n -> new VanillaQuery<>(Stream.of(n, (Integer) n * 10)));
+        filter.addFilter(n -> (Integer) n > 1);
+
+        @NotNull final List<Object> received = new ArrayList<>();
+        @NotNull final Filter.FilteredSubscriber<String> subscriber =
+                new Filter.FilteredSubscriber<>(filter, received::add);
+        subscriber.onMessage("");
+        subscriber.onMessage("a");
+        subscriber.onMessage("abc");
+
+        Assert.assertEquals(Arrays.asList(10, 3, 30), received);
+    }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.queue;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.engine.ShutdownHooks;
+import net.openhft.chronicle.engine.ThreadMonitoringTest;
+import net.openhft.chronicle.engine.api.tree.AssetTree;
+import net.openhft.chronicle.engine.tree.ChronicleQueueView;
+import net.openhft.chronicle.engine.tree.QueueView;
+import net.openhft.chronicle.engine.tree.VanillaAssetTree;
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.ChronicleMapBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static net.openhft.chronicle.engine.api.tree.RequestContext.requestContext;
+import static org.junit.Assert.*;
+
+public class QueueRowIndexTest extends ThreadMonitoringTest {
+
+    private static final String NAME = "filter/";
+    private static final int MESSAGES = 5000;
+
+    @NotNull
+    private final Predicate<QueueView.Excerpt<String, String>> filter = e -> "a".equals(e.topic());
+    // the queue index of each row matching the filter
+    @NotNull
+    private final List<Long> rows = new ArrayList<>();
+    @Rule
+    public ShutdownHooks hooks = new ShutdownHooks();
+    private AssetTree assetTree;
+    private ChronicleQueueView<String, String> queueView;
+
+    @Before
+    public void before() {
+        assetTree = hooks.addCloseable(new VanillaAssetTree(1).forTesting());
+        queueView = (ChronicleQueueView) assetTree.acquireView(
+                requestContext("/queue/QueueRowIndexTest-" + System.nanoTime() + "?dontPersist=true")
+                        .view("queue").type(String.class).type2(String.class).cluster(""));
+
+        for (int i = 0; i < MESSAGES; i++) {
+            final String topic = i % 2 == 0 ? "a" : "b";
+            final long index = queueView.publishAndIndex(topic, "message-" + i);
+            if (topic.equals("a"))
+                rows.add(index);
+        }
+    }
+
+    @Override
+    @After
+    public void preAfter() {
+        threadDump.ignore("ChronicleMapKeyValueStore Closer");
+        Closeable.closeQuietly(assetTree);
+    }
+
+    @Test
+    public void testRowCountReadsOneSliceAtATime() {
+        @NotNull final QueueRowIndex<String> rowIndex = new QueueRowIndex<>(queueView, filter, null, NAME);
+
+        // the first call only reads as much as the background does in one action
+        assertEquals(QueueRowIndex.MAX_READ_PER_ACTION / 2, rowIndex.rowCount());
+        assertEquals(MESSAGES / 2, rowIndex.rowCount());
+    }
+
+    @Test
+    public void testCheckpointsAndPagingOffsets() {
+        @NotNull final Map<String, Long> store = new HashMap<>();
+        @NotNull final QueueRowIndex<String> rowIndex = new QueueRowIndex<>(queueView, filter, store, NAME);
+        catchUp(rowIndex);
+
+        final int interval = QueueRowIndex.CHECKPOINT_INTERVAL;
+        assertCheckpoint(rowIndex, 0, 0);
+        assertCheckpoint(rowIndex, interval - 1, 0);
+        assertCheckpoint(rowIndex, interval, interval);
+        assertCheckpoint(rowIndex, 2 * interval + 5, 2 * interval);
+        assertCheckpoint(rowIndex, Long.MAX_VALUE, (rows.size() - 1) / interval * interval);
+
+        assertEquals((Long) (long) rows.size(), store.get(NAME + "count"));
+        assertEquals(rows.get(interval), store.get(NAME + interval));
+    }
+
+    @Test
+    public void testResumesFromThePersistedIndex() throws IOException {
+        @NotNull final File file = new File(System.getProperty("java.io.tmpdir"),
+                "column-row-index-" + System.nanoTime() + ".cm");
+        file.deleteOnExit();
+
+        try (ChronicleMap<String, Long> store = newStore(file)) {
+            catchUp(new QueueRowIndex<>(queueView, filter, store, NAME));
+        }
+
+        try (ChronicleMap<String, Long> store = newStore(file)) {
+            @NotNull final QueueRowIndex<String> rowIndex = new QueueRowIndex<>(queueView, filter, store, NAME);
+
+            // loaded without reading the queue
+            assertCheckpoint(rowIndex, rows.size(), (rows.size() - 1) / QueueRowIndex.CHECKPOINT_INTERVAL
+                    * QueueRowIndex.CHECKPOINT_INTERVAL);
+
+            // so only the message appended since is read
+            queueView.publishAndIndex("a", "one more");
+            assertEquals(rows.size() + 1, rowIndex.rowCount());
+        }
+    }
+
+    @Test
+    public void testRebuiltWhenTheLastIndexReadIsGone() {
+        @NotNull final Map<String, Long> store = new HashMap<>();
+        store.put(NAME + "count", 99_999L);
+        // an index the queue does not hold
+        store.put(NAME + "lastIndexRead", rows.get(rows.size() - 1) + 1_000_000);
+        store.put(NAME + "0", 42L);
+
+        @NotNull final QueueRowIndex<String> rowIndex = new QueueRowIndex<>(queueView, filter, store, NAME);
+        assertNull(rowIndex.floorCheckpoint(0));
+
+        catchUp(rowIndex);
+        assertCheckpoint(rowIndex, 0, 0);
+        assertEquals(rows.size(), rowIndex.rowCount());
+    }
+
+    @Test
+    public void testCloseAndDeleteOnlyRemovesItsOwnEntries() {
+        @NotNull final Map<String, Long> store = new HashMap<>();
+        @NotNull final QueueRowIndex<String> evicted = new QueueRowIndex<>(queueView, filter, store, NAME);
+        @NotNull final QueueRowIndex<String> other = new QueueRowIndex<>(queueView, filter, store, "other/");
+        catchUp(evicted);
+        catchUp(other);
+        final int entries = store.size();
+
+        evicted.closeAndDelete();
+        assertEquals(entries / 2, store.size());
+        for (String key : store.keySet())
+            assertTrue(key, key.startsWith("other/"));
+
+        // nothing is persisted once closed
+        queueView.publishAndIndex("a", "one more");
+        assertEquals(rows.size(), evicted.rowCount());
+        assertEquals(entries / 2, store.size());
+    }
+
+    private void catchUp(@NotNull QueueRowIndex<String> rowIndex) {
+        for (int i = 0; i < MESSAGES / QueueRowIndex.MAX_READ_PER_ACTION + 1; i++)
+            rowIndex.rowCount();
+        assertEquals(rows.size(), rowIndex.rowCount());
+    }
+
+    private void assertCheckpoint(@NotNull QueueRowIndex<String> rowIndex, long row, int expectedRow) {
+        final Map.Entry<Long, Long> checkpoint = rowIndex.floorCheckpoint(row);
+        assertNotNull(checkpoint);
+        assertEquals(expectedRow, (long) checkpoint.getKey());
+        assertEquals(rows.get(expectedRow), checkpoint.getValue());
+    }
+
+    @NotNull
+    private static ChronicleMap<String, Long> newStore(@NotNull File file) throws IOException {
+        return ChronicleMapBuilder.of(String.class, Long.class)
+                .entries(1 << 10)
+                .putReturnsNull(true)
+                .createPersistedTo(file);
+    }
+}
@@ -28,7 +28,9 @@ import net.openhft.chronicle.engine.api.pubsub.TopicPublisher;
 import net.openhft.chronicle.engine.api.pubsub.TopicSubscriber;
 import net.openhft.chronicle.engine.api.tree.AssetTree;
 import net.openhft.chronicle.engine.api.tree.RequestContext;
+import net.openhft.chronicle.engine.query.QueueConfig;
 import net.openhft.chronicle.engine.server.ServerEndpoint;
+import net.openhft.chronicle.engine.tree.ChronicleQueueView;
 import net.openhft.chronicle.engine.tree.QueueView;
 import net.openhft.chronicle.engine.tree.QueueView.Excerpt;
 import net.openhft.chronicle.engine.tree.VanillaAssetTree;
@@ -55,6 +57,7 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import static net.openhft.chronicle.engine.Utils.methodName;
 import static net.openhft.chronicle.engine.api.tree.RequestContext.requestContext;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author Rob Austin.
@@ -198,6 +201,50 @@ public class SimpleQueueViewTest extends ThreadMonitoringTest {
         assertEquals(index2, actual2.index());
     }
 
+    @Test
+    public void testGetLatestExcerpt() {
+        Assume.assumeFalse(isRemote);
+
+        @NotNull String uri = "/queue/" + methodName + DELETE_CHRONICLE_FILE;
+
+        @NotNull final ChronicleQueueView<String, String> queueView = (ChronicleQueueView) assetTree
+                .acquireView(requestContext(uri).view("queue").type(String.class).type2(String.class)
+                        .cluster(""));
+        assertLatestExcerpts(queueView);
+    }
+
+    @Test
+    public void testGetLatestExcerptFromTopicIndex() {
+        Assume.assumeFalse(isRemote);
+
+        @NotNull String uri = "/queue/" + methodName + DELETE_CHRONICLE_FILE;
+
+        // the topic index is only kept for a queue configured with one
+        assetTree.acquireAsset("/queue/" + methodName).addView(QueueConfig.class,
+                new QueueConfig(s -> 1, false, null, WireType.BINARY).topicIndexEntries(1 << 10));
+
+        @NotNull final ChronicleQueueView<String, String> queueView = (ChronicleQueueView) assetTree
+                .acquireView(requestContext(uri).view("queue").type(String.class).type2(String.class)
+                        .cluster(""));
+        assertLatestExcerpts(queueView);
+    }
+
+    private static void assertLatestExcerpts(@NotNull ChronicleQueueView<String, String> queueView) {
+        queueView.publishAndIndex("topic1", "Message-1");
+        final long index = queueView.publishAndIndex("topic2", "Message-2");
+        final long index2 = queueView.publishAndIndex("topic1", "Message-3");
+
+        @Nullable final Excerpt<String, String> topic1 = queueView.getLatestExcerpt("topic1");
+        assertEquals(index2, topic1.index());
+        assertEquals("Message-3", topic1.message());
+
+        @Nullable final Excerpt<String, String> topic2 = queueView.getLatestExcerpt("topic2");
+        assertEquals(index, topic2.index());
+        assertEquals("Message-2", topic2.message());
+
+        assertNull(queueView.getLatestExcerpt("topic3"));
+    }
+
     @Test
     public void testStringPublish() throws InterruptedException {
         @Nullable Publisher<String> publisher = null;
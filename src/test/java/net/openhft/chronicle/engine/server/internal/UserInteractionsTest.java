@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.server.internal;
+
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.engine.cfg.UserStat;
+import net.openhft.chronicle.network.VanillaSessionDetails;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class UserInteractionsTest {
+
+    @Test
+    public void testInteractionsPublishedOncePerPeriod() throws InvalidEventHandlerException {
+        @NotNull final VanillaSessionDetails sessionDetails = new VanillaSessionDetails();
+        sessionDetails.userId("user");
+        @NotNull final AtomicInteger puts = new AtomicInteger();
+        @NotNull final Map<String, UserStat> users = new HashMap<String, UserStat>() {
+            @Override
+            public UserStat put(String key, UserStat value) {
+                puts.incrementAndGet();
+                return super.put(key, value);
+            }
+        };
+        users.put("user", new UserStat());
+        puts.set(0);
+
+        @NotNull final UserInteractions interactions = new UserInteractions(sessionDetails, () -> users, 60_000);
+        for (int i = 0; i < 1000; i++)
+            interactions.onInteraction();
+
+        assertTrue(interactions.action());
+        assertEquals(1000, users.get("user").getTotalInteractions());
+        assertNotNull(users.get("user").getRecentInteraction());
+        assertEquals(1, puts.get());
+
+        // not published again until the period has passed
+        interactions.onInteraction();
+        assertFalse(interactions.action());
+        assertEquals(1, puts.get());
+
+        // what remains is published when the connection closes
+        interactions.close();
+        try {
+            interactions.action();
+            fail();
+        } catch (InvalidEventHandlerException expected) {
+            assertEquals(1001, users.get("user").getTotalInteractions());
+            assertEquals(2, puts.get());
+        }
+    }
+}
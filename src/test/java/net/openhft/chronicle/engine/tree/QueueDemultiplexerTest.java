@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.engine.tree;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.engine.ShutdownHooks;
+import net.openhft.chronicle.engine.ThreadMonitoringTest;
+import net.openhft.chronicle.engine.api.tree.AssetTree;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static net.openhft.chronicle.engine.api.tree.RequestContext.requestContext;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QueueDemultiplexerTest extends ThreadMonitoringTest {
+
+    @Rule
+    public ShutdownHooks hooks = new ShutdownHooks();
+    private AssetTree assetTree;
+    private ChronicleQueueView<String, String> queueView;
+    private QueueDemultiplexer<String, String> demultiplexer;
+
+    private static void waitFor(@NotNull BooleanSupplier condition) {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++)
+            Jvm.pause(10);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Before
+    public void before() {
+        assetTree = hooks.addCloseable(new VanillaAssetTree(1).forTesting());
+        queueView = (ChronicleQueueView) assetTree.acquireView(
+                requestContext("/queue/QueueDemultiplexerTest-" + System.nanoTime() + "?dontPersist=true")
+                        .view("queue").type(String.class).type2(String.class).cluster(""));
+        demultiplexer = queueView.demultiplexer();
+    }
+
+    @Override
+    @After
+    public void preAfter() {
+        threadDump.ignore("ChronicleMapKeyValueStore Closer");
+        Closeable.closeQuietly(assetTree);
+    }
+
+    @Test
+    public void testMessagesArePassedToTheSubscribersOfTheirTopic() {
+        @NotNull final List<String> a = new CopyOnWriteArrayList<>();
+        @NotNull final List<String> b = new CopyOnWriteArrayList<>();
+        @NotNull final List<String> all = new CopyOnWriteArrayList<>();
+        demultiplexer.registerSubscriber("a", "a", (topic, message) -> a.add(message));
+        demultiplexer.registerSubscriber("b", "b", (topic, message) -> b.add(message));
+        demultiplexer.registerSubscriber("all", null, (topic, message) -> all.add(topic + "=" + message));
+
+        queueView.publishAndIndex("a", "1");
+        queueView.publishAndIndex("b", "2");
+        queueView.publishAndIndex("c", "3");
+        queueView.publishAndIndex("a", "4");
+
+        waitFor(() -> all.size() == 4);
+        assertEquals(Arrays.asList("1", "4"), a);
+        assertEquals(Arrays.asList("2"), b);
+        assertEquals(Arrays.asList("a=1", "b=2", "c=3", "a=4"), all);
+    }
+
+    @Test
+    public void testLateSubscriberCatchesUpFromTheStart() {
+        @NotNull final List<String> early = new CopyOnWriteArrayList<>();
+        demultiplexer.registerSubscriber("early", "a", (topic, message) -> early.add(message));
+        for (int i = 0; i < 100; i++)
+            queueView.publishAndIndex(i % 2 == 0 ? "a" : "b", "message-" + i);
+        waitFor(() -> early.size() == 50);
+
+        // reads the queue with its own tailer, then joins the shared one
+        @NotNull final List<String> late = new CopyOnWriteArrayList<>();
+        demultiplexer.registerSubscriber("late", "a", (topic, message) -> late.add(message));
+        waitFor(() -> late.size() == 50);
+        queueView.publishAndIndex("a", "last");
+
+        waitFor(() -> late.size() == 51);
+        waitFor(() -> early.size() == 51);
+        assertEquals(early, late);
+    }
+
+    @Test
+    public void testUnsubscribeRemovesTheTopic() {
+        @NotNull final List<String> a = new CopyOnWriteArrayList<>();
+        @NotNull final List<String> all = new CopyOnWriteArrayList<>();
+        demultiplexer.registerSubscriber("a", "a", (topic, message) -> a.add(message));
+        demultiplexer.registerSubscriber("all", null, (topic, message) -> all.add(message));
+        queueView.publishAndIndex("a", "1");
+        waitFor(() -> a.size() == 1);
+        assertEquals(1, demultiplexer.topicCount());
+
+        demultiplexer.unregisterSubscriber("a", "a");
+        assertEquals(1, demultiplexer.subscriberCount());
+        assertEquals(0, demultiplexer.topicCount());
+
+        queueView.publishAndIndex("a", "2");
+        waitFor(() -> all.size() == 2);
+        assertEquals(Arrays.asList("1"), a);
+    }
+
+    @Test
+    public void testOneOwnerSubscribedToTwoTopics() {
+        @NotNull final List<String> received = new CopyOnWriteArrayList<>();
+        @NotNull final Object owner = new Object();
+        demultiplexer.registerSubscriber(owner, "a", (topic, message) -> received.add(message));
+        demultiplexer.registerSubscriber(owner, "b", (topic, message) -> received.add(message));
+        assertEquals(2, demultiplexer.subscriberCount());
+
+        queueView.publishAndIndex("a", "1");
+        queueView.publishAndIndex("b", "2");
+        waitFor(() -> received.size() == 2);
+
+        // only the subscription to the first topic is removed
+        demultiplexer.unregisterSubscriber(owner, "a");
+        assertEquals(1, demultiplexer.subscriberCount());
+        queueView.publishAndIndex("a", "3");
+        queueView.publishAndIndex("b", "4");
+        waitFor(() -> received.size() == 3);
+        assertEquals(Arrays.asList("1", "2", "4"), received);
+    }
+}